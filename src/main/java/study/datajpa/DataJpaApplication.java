@@ -6,10 +6,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.Optional;
 import java.util.UUID;
 
+@EnableScheduling
 @EnableJpaAuditing
 @SpringBootApplication
 public class DataJpaApplication {
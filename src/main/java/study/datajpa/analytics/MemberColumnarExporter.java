@@ -0,0 +1,203 @@
+package study.datajpa.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 현재 테넌트의 회원을 컬럼 스냅샷 파일(MemberColumnarSnapshot)로 내보낸다.
+ * 엔티티가 아닌 컬럼 값만 스트리밍 쿼리로 읽고, 컬럼마다 임시 파일에 나눠 쓴 뒤 한 파일로 합친다.
+ * username 사전은 내보내는 동안만 힙에 있다.
+ */
+@Slf4j
+@Component
+public class MemberColumnarExporter {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public MemberColumnarExporter(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public MemberColumnarSnapshot export(Path file) throws IOException {
+        long start = System.nanoTime();
+        Path dir = Files.createTempDirectory(file.toAbsolutePath().getParent(), "member-snapshot");
+        try (ColumnWriter ids = new ColumnWriter(dir.resolve("id"));
+             ColumnWriter teamIds = new ColumnWriter(dir.resolve("team_id"));
+             ColumnWriter ages = new ColumnWriter(dir.resolve("age"));
+             ColumnWriter usernames = new ColumnWriter(dir.resolve("username"))) {
+
+            Dictionary dictionary = new Dictionary();
+            int rows = readOnlyTransaction.execute(status -> {
+                int count = 0;
+                try (Stream<Object[]> stream = em.createQuery(
+                                "select m.id, t.id, m.age, m.username from Member m left join m.team t order by m.id", Object[].class)
+                        .setHint(QueryHints.FETCH_SIZE, FETCH_SIZE)
+                        .setHint(QueryHints.READ_ONLY, true)
+                        .getResultStream()) {
+                    for (Object[] row : (Iterable<Object[]>) stream::iterator) {
+                        ids.putLong((Long) row[0]);
+                        teamIds.putLong(row[1] != null ? (Long) row[1] : 0);
+                        ages.putInt((Integer) row[2]);
+                        usernames.putInt(dictionary.code((String) row[3]));
+                        count++;
+                    }
+                }
+                return count;
+            });
+
+            Path tmp = dir.resolve("snapshot");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(MemberColumnarSnapshot.HEADER_BYTES).order(MemberColumnarSnapshot.ORDER);
+                header.putInt(MemberColumnarSnapshot.MAGIC)
+                        .putInt(MemberColumnarSnapshot.VERSION)
+                        .putInt(rows)
+                        .putInt(dictionary.size())
+                        .clear();
+                writeFully(out, header);
+                for (ColumnWriter column : List.of(ids, teamIds, ages, usernames)) {
+                    column.transferTo(out);
+                }
+                dictionary.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            log.info("회원 스냅샷 내보내기 rows={}, usernames={}, {}ms, file={}",
+                    rows, dictionary.size(), (System.nanoTime() - start) / 1_000_000, file);
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(path);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+        return MemberColumnarSnapshot.open(file);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 한 컬럼을 임시 파일에 순서대로 쓴다.
+     */
+    private static class ColumnWriter implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(MemberColumnarSnapshot.ORDER);
+
+        ColumnWriter(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        void putLong(long value) {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putInt(int value) {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void transferTo(FileChannel out) throws IOException {
+            flush();
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * username -> 사전 코드 (처음 나온 순서)
+     */
+    private static class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+
+        int code(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v.getBytes(StandardCharsets.UTF_8));
+                return values.size() - 1;
+            });
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void writeTo(FileChannel out) throws IOException {
+            ByteBuffer offsets = ByteBuffer.allocate((values.size() + 1) * Integer.BYTES).order(MemberColumnarSnapshot.ORDER);
+            int offset = 0;
+            offsets.putInt(offset);
+            for (byte[] value : values) {
+                offset += value.length;
+                offsets.putInt(offset);
+            }
+            offsets.flip();
+            writeFully(out, offsets);
+
+            ByteBuffer bytes = ByteBuffer.allocate(offset);
+            values.forEach(bytes::put);
+            bytes.flip();
+            writeFully(out, bytes);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package study.datajpa.analytics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.Map;
+
+/**
+ * 회원 분석용 컬럼 스냅샷 파일 (MemberColumnarExporter 로 생성). 파일을 메모리 매핑해서 힙 밖에서 읽는다.
+ * 엔티티를 만들지 않고 필요한 컬럼만 순차로 읽으므로 전체 회원을 훑는 집계에 쓴다.
+ *
+ * <pre>
+ * header (32 bytes) : magic, version, rows, dictionary size
+ * id       long[rows]
+ * team_id  long[rows]  (팀 없음 = 0)
+ * age      int[rows]
+ * username int[rows]   (사전 코드, null = -1)
+ * dictionary offsets int[dictionary size + 1], dictionary bytes (UTF-8)
+ * </pre>
+ * 매핑 하나는 2GB 까지이므로 한 파일에 약 8천만 행까지 담을 수 있다.
+ */
+public final class MemberColumnarSnapshot implements Closeable {
+
+    static final int MAGIC = 0x4D534E50; // "MSNP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int dictionarySize;
+    private final int idOffset;
+    private final int teamIdOffset;
+    private final int ageOffset;
+    private final int usernameOffset;
+    private final int dictionaryOffsetsOffset;
+    private final int dictionaryBytesOffset;
+
+    private MemberColumnarSnapshot(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer.order(ORDER);
+        if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("회원 스냅샷 파일이 아닙니다.");
+        }
+        this.rows = this.buffer.getInt(8);
+        this.dictionarySize = this.buffer.getInt(12);
+        this.idOffset = HEADER_BYTES;
+        this.teamIdOffset = idOffset + rows * Long.BYTES;
+        this.ageOffset = teamIdOffset + rows * Long.BYTES;
+        this.usernameOffset = ageOffset + rows * Integer.BYTES;
+        this.dictionaryOffsetsOffset = usernameOffset + rows * Integer.BYTES;
+        this.dictionaryBytesOffset = dictionaryOffsetsOffset + (dictionarySize + 1) * Integer.BYTES;
+    }
+
+    public static MemberColumnarSnapshot open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new MemberColumnarSnapshot(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public long id(int row) {
+        return buffer.getLong(idOffset + row * Long.BYTES);
+    }
+
+    public long teamId(int row) {
+        return buffer.getLong(teamIdOffset + row * Long.BYTES);
+    }
+
+    public int age(int row) {
+        return buffer.getInt(ageOffset + row * Integer.BYTES);
+    }
+
+    public String username(int row) {
+        int code = buffer.getInt(usernameOffset + row * Integer.BYTES);
+        return code < 0 ? null : dictionaryValue(code);
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * 매핑은 GC 될 때 해제된다. (Java 11 에는 명시적 unmap API 가 없다)
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String dictionaryValue(int code) {
+        int start = buffer.getInt(dictionaryOffsetsOffset + code * Integer.BYTES);
+        int end = buffer.getInt(dictionaryOffsetsOffset + (code + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.duplicate().position(dictionaryBytesOffset + start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 조건(and)과 집계. 조건은 컬럼 값만 비교하고, username 조건은 사전에서 먼저 코드 집합으로 바꾼 뒤 비교한다.
+     */
+    public final class Query {
+
+        private int minAge = Integer.MIN_VALUE;
+        private int maxAge = Integer.MAX_VALUE;
+        private long teamId = -1;
+        private BitSet usernameCodes;
+
+        private Query() {
+        }
+
+        public Query ageBetween(int min, int max) {
+            this.minAge = min;
+            this.maxAge = max;
+            return this;
+        }
+
+        public Query team(long teamId) {
+            this.teamId = teamId;
+            return this;
+        }
+
+        public Query usernameStartsWith(String prefix) {
+            BitSet codes = new BitSet(dictionarySize);
+            for (int code = 0; code < dictionarySize; code++) {
+                if (dictionaryValue(code).startsWith(prefix)) {
+                    codes.set(code);
+                }
+            }
+            this.usernameCodes = codes;
+            return this;
+        }
+
+        public long count() {
+            long count = 0;
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public IntSummaryStatistics ageStatistics() {
+            IntSummaryStatistics statistics = new IntSummaryStatistics();
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    statistics.accept(age(row));
+                }
+            }
+            return statistics;
+        }
+
+        /**
+         * 팀별 나이 통계 (팀 없는 회원은 0). 팀별 나이 분포 집계용
+         */
+        public Map<Long, IntSummaryStatistics> ageStatisticsByTeam() {
+            Map<Long, IntSummaryStatistics> result = new HashMap<>();
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    result.computeIfAbsent(teamId(row), t -> new IntSummaryStatistics()).accept(age(row));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 팀별 나이 분포. 배열 i 번째 값은 나이가 [i * bucketWidth, (i + 1) * bucketWidth) 인 회원 수 (마지막 구간은 그 이상 전부)
+         */
+        public Map<Long, long[]> ageHistogramByTeam(int bucketWidth, int buckets) {
+            Map<Long, long[]> result = new HashMap<>();
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    int bucket = Math.min(Math.max(age(row), 0) / bucketWidth, buckets - 1);
+                    result.computeIfAbsent(teamId(row), t -> new long[buckets])[bucket]++;
+                }
+            }
+            return result;
+        }
+
+        public long[] ids() {
+            long[] ids = new long[rows];
+            int size = 0;
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    ids[size++] = id(row);
+                }
+            }
+            return Arrays.copyOf(ids, size);
+        }
+
+        private boolean matches(int row) {
+            if (minAge != Integer.MIN_VALUE || maxAge != Integer.MAX_VALUE) {
+                int age = age(row);
+                if (age < minAge || age > maxAge) {
+                    return false;
+                }
+            }
+            if (teamId >= 0 && teamId(row) != teamId) {
+                return false;
+            }
+            if (usernameCodes != null) {
+                int code = buffer.getInt(usernameOffset + row * Integer.BYTES);
+                return code >= 0 && usernameCodes.get(code);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 회원 수정/삭제 시 응답 캐시를 비운다.
+ * flush 시점에 호출되므로 커밋 전에 다시 채워진 캐시는 버전 비교로 걸러진다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberCacheInvalidationListener {
+
+    private final MemberResponseCache memberResponseCache;
+
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Member member) {
+        memberResponseCache.evict(member.getId());
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.tenant.TenantContext;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 회원 단건 조회 응답 캐시.
+ * 엔티티 수정 시각(lastModifiedDate)을 버전으로 같이 저장해서, 조회 시점의 버전과 다르면 캐시 미스로 처리한다.
+ * 최대 크기를 넘으면 가장 오래 사용하지 않은 항목부터 제거한다. (LRU)
+ * 키에 현재 테넌트가 포함되므로 테넌트끼리 같은 id 를 써도 섞이지 않는다.
+ */
+@Component
+public class MemberResponseCache {
+
+    private final Map<String, Entry> entries;
+
+    public MemberResponseCache(@Value("${app.member-cache.max-size:10000}") int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized String get(Long id, LocalDateTime version) {
+        Entry entry = entries.get(key(id));
+        if (entry == null || !entry.version.equals(version)) {
+            return null;
+        }
+        return entry.body;
+    }
+
+    public synchronized void put(Long id, LocalDateTime version, String body) {
+        if (version == null) {
+            return;
+        }
+        entries.put(key(id), new Entry(version, body));
+    }
+
+    public synchronized void evict(Long id) {
+        entries.remove(key(id));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static String key(Long id) {
+        return TenantContext.get() + ":" + id;
+    }
+
+    private static class Entry {
+        private final LocalDateTime version;
+        private final String body;
+
+        private Entry(LocalDateTime version, String body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package study.datajpa.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키로 동시에 들어온 조회를 하나로 합친다. (single-flight)
+ * 먼저 들어온 호출(leader)만 loader 를 실행하고, 실행 중에 들어온 같은 키의 호출은 그 결과를 같이 받는다.
+ * 결과를 보관하지 않으므로 캐시가 아니며, 실행이 끝나면 다음 호출은 다시 조회한다.
+ * 진행 중 맵은 키 해시로 나눈 stripe 별로 따로 잠근다.
+ */
+public class SingleFlight<K, V> {
+
+    private final Object[] locks;
+    private final Map<K, CompletableFuture<V>>[] inFlight;
+
+    private final Counter executions;
+    private final Counter collapsed;
+
+    @SuppressWarnings("unchecked")
+    public SingleFlight(String name, int stripes, MeterRegistry meterRegistry) {
+        this.locks = new Object[stripes];
+        this.inFlight = new Map[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+            inFlight[i] = new HashMap<>();
+        }
+        this.executions = meterRegistry.counter("single.flight.executions", "name", name);
+        this.collapsed = meterRegistry.counter("single.flight.collapsed", "name", name);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        int stripe = (key.hashCode() & 0x7fffffff) % locks.length;
+
+        CompletableFuture<V> future;
+        boolean leader = false;
+        synchronized (locks[stripe]) {
+            future = inFlight[stripe].get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                inFlight[stripe].put(key, future);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            collapsed.increment();
+            return await(future);
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (locks[stripe]) {
+                inFlight[stripe].remove(key);
+            }
+        }
+    }
+
+    public double collapsedCount() {
+        return collapsed.count();
+    }
+
+    public double executionCount() {
+        return executions.count();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.tenant.TenantContext;
+import study.datajpa.tenant.Tenants;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * 기본 스키마와 테넌트 스키마(app.tenants)에 같은 마이그레이션을 적용한다.
+     * 기본은 마이그레이션만 적용한다. local 프로파일(app.schema.recreate-on-startup: true)에서는
+     * 기존 ddl-auto: create 처럼 기동할 때마다 스키마를 새로 만든다.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            Tenants tenants,
+            @Value("${app.schema.recreate-on-startup:false}") boolean recreateOnStartup) {
+        return flyway -> {
+            for (String tenant : tenants.all()) {
+                Flyway target = TenantContext.DEFAULT_TENANT.equals(tenant)
+                        ? flyway
+                        : Flyway.configure()
+                                .configuration(flyway.getConfiguration())
+                                .schemas(tenant)
+                                .load();
+                if (recreateOnStartup) {
+                    target.clean();
+                }
+                target.migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 기동 시 리포지토리의 메서드 이름 쿼리(PartTree) 조건 컬럼을 확인해서,
+ * 어떤 인덱스의 선두 컬럼도 아닌 경우 경고 로그를 남긴다.
+ * {@link Query} 로 직접 작성한 쿼리와 연관 엔티티 경로(team.name 등) 조건은 분석하지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.schema.index-report", havingValue = "true", matchIfMissing = true)
+public class IndexCoverageReporter {
+
+    private final ListableBeanFactory beanFactory;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        Repositories repositories = new Repositories(beanFactory);
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Map<String, Set<String>> leadingColumnsByTable = new HashMap<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Class<?> domainType : repositories) {
+                EntityPersister persister = sessionFactory.getMetamodel().entityPersister(domainType);
+                if (!(persister instanceof AbstractEntityPersister)) {
+                    continue;
+                }
+                AbstractEntityPersister entityPersister = (AbstractEntityPersister) persister;
+                String table = entityPersister.getTableName();
+                Set<String> leadingColumns = leadingColumnsByTable.computeIfAbsent(table,
+                        t -> leadingIndexColumns(metaData, connection, t));
+
+                RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+                for (Method method : information.getQueryMethods()) {
+                    List<String> columns = predicateColumns(method, domainType, entityPersister);
+                    if (!columns.isEmpty() && columns.stream().noneMatch(leadingColumns::contains)) {
+                        log.warn("[index] {}.{} - {}({}) 조건을 지원하는 인덱스가 없습니다.",
+                                information.getRepositoryInterface().getSimpleName(), method.getName(), table, columns);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("[index] 인덱스 정보를 읽지 못했습니다.", e);
+        }
+    }
+
+    private static List<String> predicateColumns(Method method, Class<?> domainType, AbstractEntityPersister persister) {
+        List<String> columns = new ArrayList<>();
+        if (method.isAnnotationPresent(Query.class)) {
+            return columns;
+        }
+
+        PartTree tree;
+        try {
+            tree = new PartTree(method.getName(), domainType);
+        } catch (RuntimeException e) {
+            return columns;
+        }
+
+        for (Part part : tree.getParts()) {
+            if (part.getProperty().hasNext()) {
+                // 연관 엔티티 경로 조건은 조인 쪽 테이블 인덱스에 달려 있으므로 제외
+                continue;
+            }
+            for (String column : persister.getPropertyColumnNames(part.getProperty().getSegment())) {
+                columns.add(column.toLowerCase(Locale.ROOT));
+            }
+        }
+        return columns;
+    }
+
+    private static Set<String> leadingIndexColumns(DatabaseMetaData metaData, Connection connection, String table) {
+        Set<String> leadingColumns = new HashSet<>();
+        try {
+            String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), tableName, false, true)) {
+                while (rs.next()) {
+                    String column = rs.getString("COLUMN_NAME");
+                    if (rs.getShort("ORDINAL_POSITION") == 1 && column != null) {
+                        leadingColumns.add(column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("[index] {} 인덱스 정보를 읽지 못했습니다.", table, e);
+        }
+        return leadingColumns;
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JVM 시작부터 기동 완료, 첫 요청 응답 완료까지 걸린 시간을 로그로 남긴다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StartupTimeReporter extends OncePerRequestFilter {
+
+    private final AtomicBoolean firstRequest = new AtomicBoolean(true);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        log.info("time to ready = {}ms", sinceJvmStart());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (firstRequest.compareAndSet(true, false)) {
+                log.info("time to first request = {}ms ({})", sinceJvmStart(), request.getRequestURI());
+            }
+        }
+    }
+
+    public static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
@@ -1,18 +1,39 @@
 package study.datajpa.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.cache.MemberResponseCache;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.FetchPlan;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.FetchPlanAdvisor;
+import study.datajpa.service.MemberLookupService;
 
 import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -20,16 +41,80 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final String BY_USERNAME_SITE = "MemberController.findByUsername";
+
     private final MemberRepository memberRepository;
+    private final MemberResponseCache memberResponseCache;
+    private final MemberStreamWriter memberStreamWriter;
+    private final MemberLookupService memberLookupService;
+    private final FetchPlanAdvisor fetchPlanAdvisor;
+
+    @Value("${app.member-batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${app.member-batch.max-ids:5000}")
+    private int batchMaxIds;
+
+    @Value("${app.member-stream.max-limit:2000}")
+    private int streamMaxLimit;
 
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable Long id) {
-        Member findMember = memberRepository.findById(id).get();
-        return findMember.getUsername();
+    public String findMember(@PathVariable Long id, WebRequest request) {
+        // 버전만 먼저 조회해서 304 응답 또는 캐시 응답이 가능하면 엔티티를 읽지 않는다.
+        Optional<LocalDateTime> version = memberRepository.findLastModifiedDateById(id);
+        if (version.isPresent()) {
+            if (request.checkNotModified(etag(id, version.get()), toEpochMilli(version.get()))) {
+                return null;
+            }
+            String cached = memberResponseCache.get(id, version.get());
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 같은 id 로 동시에 들어온 요청은 조회 한 번으로 합친다.
+        // 앞서 읽은 version 보다 오래된 결과일 수 있으므로 조회 결과의 버전으로 캐시한다.
+        MemberLookupService.VersionedMember findMember = memberLookupService.findById(id).get();
+        memberResponseCache.put(id, findMember.getVersion(), findMember.getMember().getUsername());
+        return findMember.getMember().getUsername();
+    }
+
+    /**
+     * 여러 회원을 한 번에 조회한다. ex) /members/batch?ids=3,1,2
+     * in 절이 너무 길어지지 않도록 chunk 단위로 findAllById 를 호출하고, 요청한 id 순서대로 반환한다. (없는 id 는 제외, 중복 id 는 한 번만)
+     */
+    @GetMapping("/members/batch")
+    public List<MemberDto> findMembers(@RequestParam List<Long> ids) {
+        if (ids.size() > batchMaxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids 는 최대 " + batchMaxIds + "개까지 조회할 수 있습니다.");
+        }
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, MemberDto> found = new HashMap<>(distinctIds.size() * 2);
+        for (int from = 0; from < distinctIds.size(); from += batchChunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + batchChunkSize, distinctIds.size()));
+            for (Member member : memberRepository.findAllById(chunk)) {
+                found.put(member.getId(), new MemberDto(member));
+            }
+        }
+
+        List<MemberDto> result = new ArrayList<>(distinctIds.size());
+        for (Long id : distinctIds) {
+            MemberDto dto = found.get(id);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        return result;
     }
 
     @GetMapping("/members2/{id}")
-    public String findMember2(@PathVariable("id") Member member) {
+    public String findMember2(@PathVariable("id") Member member, WebRequest request) {
+        // 도메인 클래스 컨버터가 이미 엔티티를 읽었으므로 응답 본문 전송만 생략
+        LocalDateTime version = member.getLastModifiedDate();
+        if (version != null && request.checkNotModified(etag(member.getId(), version), toEpochMilli(version))) {
+            return null;
+        }
         return member.getUsername();
     }
 
@@ -40,6 +125,77 @@ public class MemberController {
         return page.map(MemberDto::new);
     }
 
+    /**
+     * 이름으로 회원과 팀 이름을 조회한다. ex) /members/by-username?username=member1
+     * 팀을 쓰는 호출이 쌓이면 FetchPlanAdvisor 가 팀을 같이 읽도록 바꿔서 회원마다 팀을 따로 조회하지 않는다. (N+1 방지)
+     */
+    @GetMapping("/members/by-username")
+    public List<MemberDto> findByUsername(@RequestParam String username) {
+        FetchPlan plan = fetchPlanAdvisor.advise(BY_USERNAME_SITE);
+        List<Member> members = memberRepository.findByUsername(username, plan);
+        List<MemberDto> result = members.stream()
+                .map(member -> new MemberDto(member.getId(), member.getUsername(),
+                        member.getTeam() != null ? member.getTeam().getName() : null))
+                .collect(Collectors.toList());
+        fetchPlanAdvisor.record(BY_USERNAME_SITE, plan, members);
+        return result;
+    }
+
+    // 목록을 메모리에 모으지 않고 커서에서 읽는 대로 내려보낸다. (Accept 에서 CBOR 를 JSON 보다 우선하면 CBOR, 그 외에는 JSON)
+    // limit 을 지정하지 않거나 최대값(app.member-stream.max-limit)보다 크면 최대값까지만 보낸다.
+    @GetMapping(value = "/members/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(defaultValue = "0") int limit,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (limit <= 0 || limit > streamMaxLimit) {
+            limit = streamMaxLimit;
+        }
+        if (prefersCbor(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .body(memberStreamWriter.cbor(limit));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(memberStreamWriter.json(limit));
+    }
+
+    /**
+     * q 값과 구체성 순으로 정렬한 Accept 에서 JSON 과 CBOR 중 먼저 호환되는 쪽을 고른다. (application/cbor;q=0.9, *&#47;* 등)
+     * 형식이 잘못된 Accept 는 JSON 으로 처리한다.
+     */
+    private static boolean prefersCbor(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(Long id, LocalDateTime version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
 //    @PostConstruct
     public void init() {
         for (int i = 0; i < 100; i++) {
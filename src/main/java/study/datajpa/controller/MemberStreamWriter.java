@@ -0,0 +1,78 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.tenant.TenantContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 회원 목록을 DB 커서에서 읽는 대로 JSON/CBOR 배열로 출력한다.
+ * 전체 목록을 메모리에 올리지 않으므로 큰 응답도 힙 사용량이 일정하고 첫 바이트가 바로 나간다.
+ */
+@Component
+public class MemberStreamWriter {
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    public MemberStreamWriter(MemberRepository memberRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper) {
+        this.memberRepository = memberRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.jsonMapper = objectMapper;
+    }
+
+    public StreamingResponseBody json(int limit) {
+        return body(jsonMapper, limit);
+    }
+
+    public StreamingResponseBody cbor(int limit) {
+        return body(cborMapper, limit);
+    }
+
+    private StreamingResponseBody body(ObjectMapper mapper, int limit) {
+        // StreamingResponseBody 는 요청 스레드가 아닌 곳에서 실행되므로 테넌트는 요청 스레드에서 잡아 둔다.
+        String tenant = TenantContext.get();
+        return out -> TenantContext.run(tenant, () -> write(mapper, out, limit));
+    }
+
+    private void write(ObjectMapper mapper, OutputStream out, int limit) {
+        // 같은 이유로 트랜잭션도 여기서 연다.
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<MemberDto> members = memberRepository.streamMemberDto(limit);
+                 JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                generator.writeStartArray();
+                int count = 0;
+                Iterator<MemberDto> iterator = members.iterator();
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                    if (++count % FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
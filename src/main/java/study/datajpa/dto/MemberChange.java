@@ -0,0 +1,42 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 변경 피드 항목. 삭제(soft delete)된 회원은 deletedAt 이 채워져 있다.
+ */
+@Getter
+@ToString
+public class MemberChange {
+
+    private final Long id;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+    private final LocalDateTime lastModifiedDate;
+    private final LocalDateTime deletedAt;
+
+    public MemberChange(Long id, String username, int age, Long teamId,
+                        LocalDateTime lastModifiedDate, LocalDateTime deletedAt) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.lastModifiedDate = lastModifiedDate;
+        this.deletedAt = deletedAt;
+    }
+
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+
+    /**
+     * 이 항목까지 받았을 때 다음 조회에 넘길 위치
+     */
+    public MemberChangeWatermark watermark() {
+        return new MemberChangeWatermark(lastModifiedDate, id);
+    }
+}
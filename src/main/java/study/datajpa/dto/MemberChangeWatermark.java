@@ -0,0 +1,33 @@
+package study.datajpa.dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 변경 피드 위치 (마지막으로 받은 회원의 lastModifiedDate, id). 이 위치 이후의 변경부터 조회한다.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class MemberChangeWatermark {
+
+    /**
+     * 처음부터 (전체 동기화)
+     */
+    public static final MemberChangeWatermark INITIAL = new MemberChangeWatermark(null, 0L);
+
+    private final LocalDateTime lastModifiedDate;
+    private final long id;
+
+    public MemberChangeWatermark(LocalDateTime lastModifiedDate, long id) {
+        this.lastModifiedDate = lastModifiedDate;
+        this.id = id;
+    }
+
+    public boolean isInitial() {
+        return lastModifiedDate == null;
+    }
+}
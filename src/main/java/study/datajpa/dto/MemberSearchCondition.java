@@ -0,0 +1,23 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 회원 동적 검색 조건. null 인 필드는 조건에서 제외된다.
+ */
+@Data
+public class MemberSearchCondition {
+
+    private String usernamePrefix;
+    private Integer ageGoe;
+    private Integer ageLoe;
+    private String teamName;
+
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private LocalDateTime lastModifiedFrom;
+    private LocalDateTime lastModifiedTo;
+
+}
@@ -27,6 +27,13 @@ public class Item implements Persistable<String> {
         this.id = id;
     }
 
+    /**
+     * 시간 순서 키({@link ItemKey})로 생성
+     */
+    public static Item create() {
+        return new Item(ItemKey.next());
+    }
+
     @Override
     public String getId() {
         return id;
@@ -0,0 +1,100 @@
+package study.datajpa.entity;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Item 용 시간 순서 키.
+ * 64bit = 밀리초 타임스탬프(42bit, 2022-01-01 기준) + 노드(10bit) + 같은 밀리초 안의 순번(12bit)
+ * 을 Crockford Base32 고정 13자리 문자열로 만든다. 문자열 정렬 순서가 생성 순서와 같아서
+ * 임의 문자열 키와 달리 PK 인덱스의 오른쪽 끝에만 추가되고, 길이도 짧다.
+ * 여러 인스턴스에서 생성할 때는 -Ditem.key.node=0~1023 으로 노드를 다르게 준다.
+ */
+public final class ItemKey {
+
+    public static final int LENGTH = 13;
+
+    private static final long EPOCH = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final ItemKey DEFAULT = new ItemKey(Integer.getInteger("item.key.node", 0));
+
+    private final long node;
+    // (타임스탬프 << SEQUENCE_BITS) | 순번
+    private final AtomicLong state = new AtomicLong();
+
+    public ItemKey(int node) {
+        if (node < 0 || node >= (1 << NODE_BITS)) {
+            throw new IllegalArgumentException("node 는 0 ~ " + ((1 << NODE_BITS) - 1) + " 사이여야 합니다. node = " + node);
+        }
+        this.node = node;
+    }
+
+    public static String next() {
+        return DEFAULT.nextKey();
+    }
+
+    public String nextKey() {
+        return encode(nextLong());
+    }
+
+    public long nextLong() {
+        while (true) {
+            long prev = state.get();
+            long prevTime = prev >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH;
+
+            long next;
+            if (now > prevTime) {
+                next = now << SEQUENCE_BITS;
+            } else if ((prev & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                // 같은 밀리초(또는 시계가 뒤로 간 경우)에는 순번 증가
+                next = prev + 1;
+            } else {
+                // 순번 소진 시 다음 밀리초 값을 미리 사용
+                next = (prevTime + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(prev, next)) {
+                long time = next >>> SEQUENCE_BITS;
+                return (time << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | (next & MAX_SEQUENCE);
+            }
+        }
+    }
+
+    public static String encode(long value) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public static long decode(String key) {
+        if (key.length() != LENGTH) {
+            throw new IllegalArgumentException("잘못된 키 길이: " + key);
+        }
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = indexOf(Character.toUpperCase(key.charAt(i)));
+            if (digit < 0) {
+                throw new IllegalArgumentException("잘못된 키 문자: " + key);
+            }
+            value = (value << 5) | digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
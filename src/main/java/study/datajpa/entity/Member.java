@@ -1,16 +1,27 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.datajpa.cache.MemberCacheInvalidationListener;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 import static lombok.AccessLevel.PROTECTED;
 
 @Entity
+@EntityListeners(MemberCacheInvalidationListener.class)
 @Getter
 @Setter
 @NoArgsConstructor(access = PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@SQLDelete(sql = "update member set deleted_at = current_timestamp, last_modified_date = current_timestamp where member_id = ?")
+@Where(clause = "deleted_at is null")
 @NamedQuery(
         name = "Member.findByUsername",
         query = "select m from Member m where m.username = :username"
@@ -18,7 +29,12 @@ import static lombok.AccessLevel.PROTECTED;
 public class Member extends BaseEntity{
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_id_generator")
+    @GenericGenerator(name = "member_id_generator", strategy = "study.datajpa.entity.PooledLoSequenceGenerator",
+            parameters = {
+                    @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "hibernate_sequence"),
+                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+            })
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -28,6 +44,9 @@ public class Member extends BaseEntity{
     @JoinColumn(name = "team_id")
     private Team team;
 
+    @Setter(AccessLevel.NONE)
+    private LocalDateTime deletedAt;
+
     public Member(String username) {
         this.username = username;
     }
@@ -47,6 +66,10 @@ public class Member extends BaseEntity{
 
     public void changeTeam(Team team) {
         this.team = team;
-        team.getMembers().add(this);
+        // 바이트코드 향상(association management)이 켜져 있으면 위 대입에서 이미 추가된다.
+        // 아직 로딩되지 않은 컬렉션은 건드리지 않는다. (contains 만으로도 팀의 회원 전체를 읽게 된다)
+        if (Hibernate.isInitialized(team.getMembers()) && !team.getMembers().contains(this)) {
+            team.getMembers().add(this);
+        }
     }
 }
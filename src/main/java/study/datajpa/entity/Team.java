@@ -1,24 +1,41 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(TeamRemovalListener.class)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@SQLDelete(sql = "update team set deleted_at = current_timestamp where team_id = ?")
+@Where(clause = "deleted_at is null")
 public class Team extends JpaBaseEntity{
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_id_generator")
+    @GenericGenerator(name = "team_id_generator", strategy = "study.datajpa.entity.PooledLoSequenceGenerator",
+            parameters = {
+                    @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "hibernate_sequence"),
+                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+            })
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Setter(AccessLevel.NONE)
+    private LocalDateTime deletedAt;
+
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
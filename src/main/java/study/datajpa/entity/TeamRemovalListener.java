@@ -0,0 +1,33 @@
+package study.datajpa.entity;
+
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PreRemove;
+import java.time.LocalDateTime;
+
+/**
+ * 팀 소프트 삭제 전에 남은 회원의 team_id 를 update 한 번으로 비운다.
+ * 소프트 삭제는 행을 남기므로 FK 로 막히지 않고, 그대로 두면 회원이 @Where 로 보이지 않는 팀을 가리켜서
+ * getTeam() 이 EntityNotFoundException 을 던진다. members 컬렉션은 읽지 않는다.
+ * 이미 영속성 컨텍스트에 올라와 있는 회원 엔티티에는 반영되지 않는다. (벌크 쿼리)
+ */
+@Component
+public class TeamRemovalListener {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @PreRemove
+    public void detachMembers(Team team) {
+        // remove() 도중이므로 자동 flush 하지 않는다.
+        em.createQuery("update Member m set m.team = null, m.lastModifiedDate = :now" +
+                        " where m.team = :team and m.deletedAt is null")
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("team", team)
+                .setFlushMode(FlushModeType.COMMIT)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 벌크/네이티브 쿼리로 바뀐 행. Hibernate 이벤트가 없어서 {@link EntityChangedEvent} 로는 알 수 없으므로
+ * 어떤 행이 바뀌었는지 대신 테넌트와 엔티티 타입만 알린다. (받는 쪽에서 다시 읽는다)
+ */
+@Getter
+@ToString
+public class BulkChangedEvent {
+
+    private final String tenant;
+    private final Class<?> entityType;
+
+    public BulkChangedEvent(String tenant, Class<?> entityType) {
+        this.tenant = tenant;
+        this.entityType = entityType;
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.event;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import study.datajpa.tenant.TenantContext;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Hibernate 의 커밋 후 insert/update/delete 이벤트를 스프링 이벤트(EntityChangedEvent)로 전달한다.
+ * 롤백된 변경은 전달되지 않는다. 벌크 JPQL/네이티브 쿼리로 바꾼 행은 Hibernate 이벤트가 없으므로 전달되지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeEventBridge implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(EntityChangedEvent.Type.INSERT, event.getSession(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(EntityChangedEvent.Type.UPDATE, event.getSession(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(EntityChangedEvent.Type.DELETE, event.getSession(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    private void publish(EntityChangedEvent.Type type, EventSource session, Object id, Object entity) {
+        String tenant = session.getTenantIdentifier();
+        eventPublisher.publishEvent(new EntityChangedEvent(type, tenant != null ? tenant : TenantContext.DEFAULT_TENANT, id, entity));
+    }
+}
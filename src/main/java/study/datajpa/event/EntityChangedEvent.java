@@ -0,0 +1,31 @@
+package study.datajpa.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 커밋된 엔티티 변경. 커밋이 끝난 뒤 커밋한 스레드에서 발행된다.
+ * entity 는 해당 세션의 인스턴스이므로 리스너에서는 필요한 값만 바로 꺼내 쓰고 보관하지 않는다.
+ */
+@Getter
+@ToString(of = {"type", "tenant", "entityType", "id"})
+public class EntityChangedEvent {
+
+    public enum Type {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final Type type;
+    private final String tenant;
+    private final Class<?> entityType;
+    private final Object id;
+    private final Object entity;
+
+    public EntityChangedEvent(Type type, String tenant, Object id, Object entity) {
+        this.type = type;
+        this.tenant = tenant;
+        this.entityType = entity.getClass();
+        this.id = id;
+        this.entity = entity;
+    }
+}
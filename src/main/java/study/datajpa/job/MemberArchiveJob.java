@@ -0,0 +1,106 @@
+package study.datajpa.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.event.BulkChangedEvent;
+import study.datajpa.tenant.TenantContext;
+import study.datajpa.tenant.Tenants;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * lastModifiedDate 가 threshold 보다 오래된 회원을 member 에서 member_archive 로 옮긴다.
+ * batch-size 건씩 한 트랜잭션에서 복사 후 삭제하고 커밋하므로, 중간에 멈춰도 다음 실행에서 남은 행부터 이어서 처리된다.
+ * 삭제(soft delete)된 회원은 옮기지 않는다. (SoftDeletePurgeJob 대상)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true")
+public class MemberArchiveJob {
+
+    private static final String COLUMNS =
+            "member_id, created_date, last_modified_date, created_by, last_modified_by, username, age, team_id";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Tenants tenants;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration threshold;
+    private final int batchSize;
+
+    public MemberArchiveJob(Tenants tenants,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.archive.threshold:180d}") Duration threshold,
+                            @Value("${app.archive.batch-size:500}") int batchSize) {
+        this.tenants = tenants;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threshold = threshold;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 0 3 * * *}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(threshold);
+        tenants.forEach(tenant -> {
+            int archived = archive(cutoff);
+            if (archived > 0) {
+                log.info("[{}] archived members = {}", tenant, archived);
+            }
+        });
+    }
+
+    public int archive(LocalDateTime cutoff) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveBatch(cutoff));
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            // member 에서 지운 행은 Hibernate 이벤트가 없으므로 따로 알린다. (검색 인덱스 등)
+            eventPublisher.publishEvent(new BulkChangedEvent(TenantContext.get(), Member.class));
+        }
+        return total;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int moveBatch(LocalDateTime cutoff) {
+        // 옮기는 동안 수정되지 않도록 대상 행을 먼저 잠근다.
+        List<Number> ids = em.createNativeQuery(
+                        "select member_id from member" +
+                                " where last_modified_date < :cutoff and deleted_at is null" +
+                                " order by member_id" +
+                                " limit :limit for update")
+                .setParameter("cutoff", cutoff)
+                .setParameter("limit", batchSize)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        em.createNativeQuery(
+                        "insert into member_archive (" + COLUMNS + ", archived_at)" +
+                                " select " + COLUMNS + ", current_timestamp from member where member_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery("delete from member where member_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return ids.size();
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.tenant.Tenants;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * soft delete 된 회원/팀(deleted_at)을 보관 기간이 지나면 실제로 삭제한다.
+ * 한 트랜잭션에서 batch-size 건씩만 지워서 락을 오래 잡지 않는다.
+ * 팀은 참조하는 회원 행(member_archive 포함)이 모두 지워진 뒤에 삭제된다. 테넌트 스키마마다 따로 실행한다.
+ * 지우는 행은 soft delete 때 이미 DELETE 이벤트로 검색 인덱스/읽기 모델에서 빠졌으므로 BulkChangedEvent 는 알리지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class SoftDeletePurgeJob {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Tenants tenants;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    public SoftDeletePurgeJob(Tenants tenants,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.purge.retention:7d}") Duration retention,
+                              @Value("${app.purge.batch-size:500}") int batchSize) {
+        this.tenants = tenants;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.purge.interval:60000}", initialDelayString = "${app.purge.interval:60000}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        tenants.forEach(tenant -> purge(tenant, cutoff));
+    }
+
+    private void purge(String tenant, LocalDateTime cutoff) {
+
+        int members = purgeInBatches(
+                "delete from member where member_id in (" +
+                        "select member_id from member where deleted_at < :cutoff limit :limit)", cutoff);
+        int teams = purgeInBatches(
+                "delete from team where team_id in (" +
+                        "select t.team_id from team t where t.deleted_at < :cutoff" +
+                        " and not exists (select 1 from member m where m.team_id = t.team_id)" +
+                        " and not exists (select 1 from member_archive a where a.team_id = t.team_id) limit :limit)", cutoff);
+
+        if (members + teams > 0) {
+            log.info("[{}] purged members = {}, teams = {}", tenant, members, teams);
+        }
+    }
+
+    private int purgeInBatches(String sql, LocalDateTime cutoff) {
+        int total = 0;
+        int purged;
+        do {
+            purged = transactionTemplate.execute(status -> em.createNativeQuery(sql)
+                    .setParameter("cutoff", cutoff)
+                    .setParameter("limit", batchSize)
+                    .executeUpdate());
+            total += purged;
+        } while (purged == batchSize);
+        return total;
+    }
+}
@@ -0,0 +1,62 @@
+package study.datajpa.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+public class SlowQuery {
+
+    private final LocalDateTime executedAt;
+    private final long elapsedMillis;
+    private final String schema;
+    private final String sql;
+    // EXPLAIN 에 다시 바인딩할 실제 값. 엔드포인트에는 마스킹한 값(getParameters)만 나간다.
+    @Getter(AccessLevel.NONE)
+    private final List<Object> boundValues;
+    private final String error;
+    // 실행 계획은 기록 후 별도 스레드에서 채운다.
+    private volatile List<String> plan = Collections.emptyList();
+
+    public SlowQuery(LocalDateTime executedAt, long elapsedMillis, String schema,
+                     String sql, List<Object> boundValues, String error) {
+        this.executedAt = executedAt;
+        this.elapsedMillis = elapsedMillis;
+        this.schema = schema;
+        this.sql = sql;
+        this.boundValues = boundValues;
+        this.error = error;
+    }
+
+    /**
+     * 바인딩 값. 숫자/날짜는 그대로, 문자열은 앞 두 글자와 길이만 남긴다. (ex) "gu***(6)")
+     */
+    public List<String> getParameters() {
+        return boundValues.stream().map(SlowQuery::mask).collect(Collectors.toList());
+    }
+
+    List<Object> boundValues() {
+        return boundValues;
+    }
+
+    void setPlan(List<String> plan) {
+        this.plan = plan;
+    }
+
+    private static String mask(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean
+                || value instanceof TemporalAccessor || value instanceof java.util.Date) {
+            return String.valueOf(value);
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            return text.substring(0, Math.min(2, text.length())) + "***(" + text.length() + ")";
+        }
+        return value.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/slowqueries : 최근 느린 쿼리 목록 (바인딩 값 없이 파라미터 SQL 만)
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryRecorder slowQueryRecorder;
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return slowQueryRecorder.recent();
+    }
+}
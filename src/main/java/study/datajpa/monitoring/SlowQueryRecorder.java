@@ -0,0 +1,169 @@
+package study.datajpa.monitoring;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.support.QueryGuardProperties;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * p6spy 로 모든 JDBC 실행 시간을 받아서, app.query-guard.slow-query-threshold 를 넘은 SQL 을
+ * 실행 계획(EXPLAIN)과 함께 고정 크기 링 버퍼에 남긴다. (/actuator/slowqueries)
+ * 바인딩 값은 실행한 값 그대로 EXPLAIN 에 다시 바인딩하고(SQL 문자열에 붙이지 않음), 엔드포인트에는 마스킹해서 내보낸다.
+ * EXPLAIN 은 요청 스레드가 커넥션을 더 잡지 않도록 별도 스레드에서 실행한다.
+ */
+@Slf4j
+@Component
+public class SlowQueryRecorder extends JdbcEventListener {
+
+    private static final ThreadLocal<Boolean> EXPLAINING = ThreadLocal.withInitial(() -> false);
+    // 현재 스레드에서 마지막으로 값이 바인딩된 statement 와 그 값 (실행 후 비운다)
+    private static final ThreadLocal<BoundParameters> PARAMETERS = new ThreadLocal<>();
+
+    private final QueryGuardProperties properties;
+    private final ObjectProvider<DataSource> dataSource;
+    private final AtomicReferenceArray<SlowQuery> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), r -> new Thread(r, "slow-query-explain"), new ThreadPoolExecutor.DiscardPolicy());
+
+    public SlowQueryRecorder(QueryGuardProperties properties, ObjectProvider<DataSource> dataSource) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.buffer = new AtomicReferenceArray<>(Math.max(1, properties.getSlowQueryBufferSize()));
+    }
+
+    @Override
+    public void onAfterPreparedStatementSet(PreparedStatementInformation statementInformation, int parameterIndex,
+                                            Object value, SQLException e) {
+        BoundParameters parameters = PARAMETERS.get();
+        if (parameters == null || parameters.statement != statementInformation) {
+            parameters = new BoundParameters(statementInformation);
+            PARAMETERS.set(parameters);
+        }
+        parameters.values.put(parameterIndex, value);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        BoundParameters parameters = PARAMETERS.get();
+        PARAMETERS.remove();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos);
+        if (EXPLAINING.get() || elapsedMillis < properties.getSlowQueryThreshold().toMillis()) {
+            return;
+        }
+
+        String sql = statementInformation.getSql();
+        List<Object> boundValues = parameters != null && parameters.statement == statementInformation
+                ? new ArrayList<>(parameters.values.values()) : Collections.emptyList();
+        SlowQuery slowQuery = new SlowQuery(LocalDateTime.now(), elapsedMillis,
+                schemaOf(statementInformation), sql, boundValues, e != null ? e.getMessage() : null);
+        buffer.set((int) (sequence.getAndIncrement() % buffer.length()), slowQuery);
+        log.warn("[slow-query] {}ms {}", elapsedMillis, sql);
+
+        if (properties.isExplain() && isSelect(sql)) {
+            explainExecutor.execute(() -> slowQuery.setPlan(explain(slowQuery)));
+        }
+    }
+
+    /**
+     * 최근 기록부터 반환
+     */
+    public List<SlowQuery> recent() {
+        List<SlowQuery> result = new ArrayList<>();
+        long last = sequence.get();
+        for (long i = last - 1; i >= 0 && i >= last - buffer.length(); i--) {
+            SlowQuery slowQuery = buffer.get((int) (i % buffer.length()));
+            if (slowQuery != null) {
+                result.add(slowQuery);
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    private List<String> explain(SlowQuery slowQuery) {
+        List<String> plan = new ArrayList<>();
+        EXPLAINING.set(true);
+        try (Connection connection = dataSource.getObject().getConnection()) {
+            String originalSchema = connection.getSchema();
+            if (slowQuery.getSchema() != null) {
+                connection.setSchema(slowQuery.getSchema());
+            }
+            try (PreparedStatement statement = connection.prepareStatement("explain " + slowQuery.getSql())) {
+                // 실행 때와 같은 값으로 계획을 보되, 값은 SQL 문자열이 아니라 파라미터로만 넘긴다
+                List<Object> boundValues = slowQuery.boundValues();
+                int parameterCount = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameterCount; i++) {
+                    statement.setObject(i, i <= boundValues.size() ? boundValues.get(i - 1) : null);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        plan.add(rs.getString(1));
+                    }
+                }
+            } finally {
+                // 풀에 돌려주기 전에 원래 스키마로 복구
+                connection.setSchema(originalSchema);
+            }
+        } catch (SQLException | RuntimeException ex) {
+            plan.add("explain failed: " + ex.getMessage());
+        } finally {
+            EXPLAINING.remove();
+        }
+        return plan;
+    }
+
+    private static class BoundParameters {
+
+        private final PreparedStatementInformation statement;
+        private final Map<Integer, Object> values = new TreeMap<>();
+
+        private BoundParameters(PreparedStatementInformation statement) {
+            this.statement = statement;
+        }
+    }
+
+    private static String schemaOf(StatementInformation statementInformation) {
+        try {
+            return statementInformation.getConnectionInformation().getConnection().getSchema();
+        } catch (SQLException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql != null && sql.trim().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+}
@@ -0,0 +1,34 @@
+package study.datajpa.reactive;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC 읽기 전용 회원 행. JPA 엔티티 {@link study.datajpa.entity.Member} 와 같은 member 테이블을 읽는다.
+ */
+@Getter
+@ToString(of = {"id", "username", "age"})
+@Table("member")
+public class MemberRow {
+
+    @Id
+    @Column("member_id")
+    private final Long id;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+    private final LocalDateTime deletedAt;
+
+    public MemberRow(Long id, String username, int age, Long teamId, LocalDateTime deletedAt) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.deletedAt = deletedAt;
+    }
+}
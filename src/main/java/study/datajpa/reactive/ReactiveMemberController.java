@@ -0,0 +1,84 @@
+package study.datajpa.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.tenant.TenantContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * MemberController 의 읽기 API 를 R2DBC 로 처리한다.
+ * 목록은 application/x-ndjson 으로 한 건씩 내려보내고, 클라이언트가 읽는 속도에 맞춰 DB 에서 가져온다. (backpressure)
+ * R2DBC 커넥션에는 테넌트 스키마 전환이 없으므로 기본 스키마만 조회하고, 다른 테넌트 요청은 400 으로 거절한다.
+ * 소프트 삭제된 회원/팀은 JPA 쪽 @Where 와 같이 deleted_at is null 조건으로 걸러낸다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ReactiveMemberController {
+
+    private static final int TEAM_LOOKUP_BATCH = 100;
+
+    private final ReactiveMemberRepository reactiveMemberRepository;
+    private final ReactiveTeamRepository reactiveTeamRepository;
+
+    @GetMapping("/reactive/members/{id}")
+    public Mono<MemberDto> findMember(@PathVariable Long id) {
+        if (!isDefaultTenant()) {
+            return Mono.error(unsupportedTenant());
+        }
+        return reactiveMemberRepository.findActiveById(id)
+                .flatMap(member -> member.getTeamId() == null
+                        ? Mono.just(new MemberDto(member.getId(), member.getUsername(), null))
+                        : reactiveTeamRepository.findActiveById(member.getTeamId())
+                                .map(team -> new MemberDto(member.getId(), member.getUsername(), team.getName()))
+                                .defaultIfEmpty(new MemberDto(member.getId(), member.getUsername(), null)));
+    }
+
+    @GetMapping(value = "/reactive/members", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberDto> findByAge(@RequestParam int age) {
+        if (!isDefaultTenant()) {
+            return Flux.error(unsupportedTenant());
+        }
+        // 팀 이름은 회원 100건 단위로 모아서 한 번에 조회 (N+1 방지)
+        return reactiveMemberRepository.findByAge(age)
+                .buffer(TEAM_LOOKUP_BATCH)
+                .concatMap(this::withTeamNames);
+    }
+
+    // TenantFilter 가 요청 스레드에 건 테넌트. 구독 전에 확인해야 한다.
+    private static boolean isDefaultTenant() {
+        return TenantContext.DEFAULT_TENANT.equals(TenantContext.get());
+    }
+
+    private static ResponseStatusException unsupportedTenant() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "reactive API does not support tenant: " + TenantContext.get());
+    }
+
+    private Flux<MemberDto> withTeamNames(List<MemberRow> members) {
+        List<Long> teamIds = members.stream()
+                .map(MemberRow::getTeamId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Mono<Map<Long, String>> teamNames = teamIds.isEmpty()
+                ? Mono.just(Map.of())
+                : reactiveTeamRepository.findActiveByIds(teamIds).collectMap(TeamRow::getId, TeamRow::getName);
+
+        return teamNames.flatMapIterable(names -> members.stream()
+                .map(member -> new MemberDto(member.getId(), member.getUsername(),
+                        member.getTeamId() == null ? null : names.get(member.getTeamId()))))
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpa.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveMemberRepository extends ReactiveCrudRepository<MemberRow, Long> {
+
+    @Query("select * from member where member_id = :id and deleted_at is null")
+    Mono<MemberRow> findActiveById(Long id);
+
+    @Query("select * from member where age = :age and deleted_at is null order by member_id")
+    Flux<MemberRow> findByAge(int age);
+
+}
@@ -0,0 +1,18 @@
+package study.datajpa.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveTeamRepository extends ReactiveCrudRepository<TeamRow, Long> {
+
+    @Query("select * from team where team_id = :id and deleted_at is null")
+    Mono<TeamRow> findActiveById(Long id);
+
+    @Query("select * from team where team_id in (:ids) and deleted_at is null")
+    Flux<TeamRow> findActiveByIds(Collection<Long> ids);
+
+}
@@ -0,0 +1,26 @@
+package study.datajpa.reactive;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC 읽기 전용 팀 행
+ */
+@Getter
+@ToString(of = {"id", "name"})
+@Table("team")
+public class TeamRow {
+
+    @Id
+    @Column("team_id")
+    private final Long id;
+    private final String name;
+
+    public TeamRow(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+}
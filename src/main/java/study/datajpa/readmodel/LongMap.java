@@ -0,0 +1,239 @@
+package study.datajpa.readmodel;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * long 키 해시 테이블 (open addressing, linear probing). 생성 후에는 바뀌지 않는다.
+ * Long 박싱과 HashMap 엔트리 객체가 없어서 키 하나에 long 1개 + 참조 1개만 쓴다.
+ * 값이 null 인 칸이 빈 칸이다.
+ * 키 해시 상위 비트로 나눈 segment 별로 배열을 따로 두고, toBuilder() 로 고칠 때는 바뀐 segment 만 복사한다.
+ * 나머지 segment 는 이전 테이블과 공유하므로 변경 몇 건을 반영하는 비용이 전체 크기에 비례하지 않는다.
+ */
+final class LongMap<V> {
+
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int MIN_CAPACITY = 4;
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    // null 이면 빈 segment
+    private final Segment[] segments;
+    private final int size;
+
+    private LongMap(Segment[] segments, int size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    static <V> LongMap<V> empty() {
+        return new Builder<V>(0).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        long hash = hash(key);
+        Segment segment = segments[segmentIndex(hash)];
+        return segment != null ? (V) segment.get(key, hash) : null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<Long, V> action) {
+        for (Segment segment : segments) {
+            if (segment == null) {
+                continue;
+            }
+            for (int i = 0; i < segment.keys.length; i++) {
+                if (segment.values[i] != null) {
+                    action.accept(segment.keys[i], (V) segment.values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * segment 참조만 복사한다. segment 배열은 처음 수정할 때 복사한다. (copy-on-write)
+     */
+    Builder<V> toBuilder() {
+        return new Builder<>(segments.clone(), size);
+    }
+
+    private static long hash(long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    private static int segmentIndex(long hash) {
+        return (int) (hash >>> (64 - SEGMENT_BITS));
+    }
+
+    private static int slot(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expected) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static final class Segment {
+
+        private long[] keys;
+        private Object[] values;
+        private int size;
+
+        private Segment(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        private Segment(Segment source) {
+            this.keys = Arrays.copyOf(source.keys, source.keys.length);
+            this.values = Arrays.copyOf(source.values, source.values.length);
+            this.size = source.size;
+        }
+
+        private Object get(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int i = slot(hash, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 새 키를 넣었으면 true
+         */
+        private boolean put(long key, long hash, Object value) {
+            if ((size + 1) > keys.length * LOAD_FACTOR) {
+                resize(keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int i = slot(hash, mask);
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            return true;
+        }
+
+        private boolean remove(long key, long hash) {
+            int mask = keys.length - 1;
+            int i = slot(hash, mask);
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                return false;
+            }
+            values[i] = null;
+            size--;
+
+            // 삭제한 칸 뒤의 같은 클러스터 항목을 앞으로 당겨서 조회가 끊기지 않게 한다. (tombstone 없음)
+            int hole = i;
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = slot(hash(keys[j]), mask);
+                boolean movable = hole <= j ? (home <= hole || home > j) : (home <= hole && home > j);
+                if (movable) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    values[j] = null;
+                    hole = j;
+                }
+            }
+            return true;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[capacity];
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = slot(hash(oldKeys[j]), mask);
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+    }
+
+    static final class Builder<V> {
+
+        private Segment[] segments;
+        // 이 Builder 가 복사(또는 생성)해서 고쳐도 되는 segment
+        private boolean[] owned;
+        private int size;
+        private final int segmentCapacity;
+
+        Builder(int expectedSize) {
+            this.segments = new Segment[SEGMENTS];
+            this.owned = new boolean[SEGMENTS];
+            this.segmentCapacity = capacityFor(expectedSize / SEGMENTS);
+        }
+
+        private Builder(Segment[] segments, int size) {
+            this.segments = segments;
+            this.owned = new boolean[SEGMENTS];
+            this.size = size;
+            this.segmentCapacity = MIN_CAPACITY;
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(long key) {
+            long hash = hash(key);
+            Segment segment = segments[segmentIndex(hash)];
+            return segment != null ? (V) segment.get(key, hash) : null;
+        }
+
+        void put(long key, V value) {
+            long hash = hash(key);
+            if (writable(segmentIndex(hash)).put(key, hash, value)) {
+                size++;
+            }
+        }
+
+        void remove(long key) {
+            long hash = hash(key);
+            int index = segmentIndex(hash);
+            if (segments[index] != null && writable(index).remove(key, hash)) {
+                size--;
+            }
+        }
+
+        LongMap<V> build() {
+            LongMap<V> map = new LongMap<>(segments, size);
+            segments = null;
+            owned = null;
+            return map;
+        }
+
+        private Segment writable(int index) {
+            if (!owned[index]) {
+                Segment shared = segments[index];
+                segments[index] = shared != null ? new Segment(shared) : new Segment(segmentCapacity);
+                owned[index] = true;
+            }
+            return segments[index];
+        }
+    }
+}
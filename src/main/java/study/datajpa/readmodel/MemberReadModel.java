@@ -0,0 +1,193 @@
+package study.datajpa.readmodel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.event.BulkChangedEvent;
+import study.datajpa.event.EntityChangedEvent;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.tenant.TenantContext;
+import study.datajpa.tenant.Tenants;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 자주 쓰는 회원 조회(id, username, 팀별 회원)용 메모리 읽기 모델. (app.read-model.enabled=true 일 때만)
+ * 시작 시 테넌트별로 DB 에서 읽어 채우고, 이후에는 커밋된 변경(EntityChangedEvent)을 모아 refresh-interval 마다 반영한다.
+ * 조회는 현재 스냅샷 참조만 읽으므로 잠금이 없고, 반영은 스냅샷을 복사해서 바꾼 뒤 참조를 교체한다.
+ * 벌크 쿼리(bulkAgePlus, 보관 작업)로 바뀐 행은 BulkChangedEvent 를 받으면 다음 refresh 에서 해당 테넌트를 다시 읽어 반영한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.read-model.enabled", havingValue = "true")
+public class MemberReadModel {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Tenants tenants;
+    private final TeamRepository teamRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<String, MemberSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Queue<PendingChange> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final Set<String> staleTenants = ConcurrentHashMap.newKeySet();
+
+    public MemberReadModel(Tenants tenants, TeamRepository teamRepository, PlatformTransactionManager transactionManager) {
+        this.tenants = tenants;
+        this.teamRepository = teamRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public Optional<MemberRecord> findById(long id) {
+        return Optional.ofNullable(snapshot().findById(id));
+    }
+
+    public List<MemberRecord> findByUsername(String username) {
+        return snapshot().findByUsername(username);
+    }
+
+    public List<MemberRecord> findByTeamId(long teamId) {
+        return snapshot().findByTeamId(teamId);
+    }
+
+    public String teamName(long teamId) {
+        return snapshot().teamName(teamId);
+    }
+
+    public MemberSnapshot snapshot() {
+        return snapshots.getOrDefault(TenantContext.get(), MemberSnapshot.empty());
+    }
+
+    // 스냅샷 교체(reload, refresh)끼리만 동기화한다. 조회는 잠금을 잡지 않는다.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        tenants.forEach(this::reload);
+    }
+
+    /**
+     * 벌크 작업이 커밋된 뒤 호출된다. 커밋 스레드에서 다시 읽지 않고, 다음 refresh 에서 해당 테넌트를 다시 읽는다.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(BulkChangedEvent event) {
+        if (event.getEntityType() == Member.class || event.getEntityType() == Team.class) {
+            staleTenants.add(event.getTenant());
+        }
+    }
+
+    /**
+     * 커밋 스레드에서 호출된다. 엔티티에서 값만 꺼내 대기열에 넣고 바로 반환한다.
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        Object entity = event.getEntity();
+        boolean deleted = event.getType() == EntityChangedEvent.Type.DELETE;
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            long id = member.getId();
+            if (deleted) {
+                enqueue(event.getTenant(), builder -> builder.removeMember(id));
+            } else {
+                MemberRecord record = new MemberRecord(id, member.getUsername(), member.getAge(),
+                        member.getTeam() != null ? member.getTeam().getId() : 0);
+                enqueue(event.getTenant(), builder -> builder.putMember(record));
+            }
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            long id = team.getId();
+            String name = team.getName();
+            enqueue(event.getTenant(), deleted ? builder -> builder.removeTeam(id) : builder -> builder.putTeam(id, name));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.read-model.refresh-interval:100}")
+    public synchronized void refresh() {
+        Map<String, List<Consumer<MemberSnapshot.Builder>>> changesByTenant = new LinkedHashMap<>();
+        PendingChange change;
+        while ((change = pendingChanges.poll()) != null) {
+            changesByTenant.computeIfAbsent(change.tenant, t -> new ArrayList<>()).add(change.apply);
+        }
+
+        // 다시 읽는 테넌트는 이미 꺼낸 변경보다 나중 상태를 읽으므로 꺼낸 변경은 버린다.
+        for (String tenant : new ArrayList<>(staleTenants)) {
+            staleTenants.remove(tenant);
+            changesByTenant.remove(tenant);
+            if (snapshots.containsKey(tenant)) {
+                TenantContext.run(tenant, () -> reload(tenant));
+            }
+        }
+
+        changesByTenant.forEach((tenant, changes) -> {
+            MemberSnapshot current = snapshots.get(tenant);
+            if (current == null) {
+                return;
+            }
+            MemberSnapshot.Builder builder = current.toBuilder();
+            changes.forEach(apply -> apply.accept(builder));
+            snapshots.put(tenant, builder.build());
+        });
+    }
+
+    private void reload(String tenant) {
+        long start = System.nanoTime();
+        MemberSnapshot snapshot = readOnlyTransaction.execute(status -> load());
+        snapshots.put(tenant, snapshot);
+        log.info("읽기 모델 로딩 tenant={}, members={}, {}ms", tenant, snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private MemberSnapshot load() {
+        MemberSnapshot.Builder builder = new MemberSnapshot.Builder();
+        for (Team team : teamRepository.findAll()) {
+            builder.putTeam(team.getId(), team.getName());
+        }
+
+        try (Stream<Object[]> rows = em.createQuery(
+                        "select m.id, m.username, m.age, t.id from Member m left join m.team t", Object[].class)
+                .setHint(QueryHints.FETCH_SIZE, LOAD_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream()) {
+            rows.forEach(row -> builder.putMember(new MemberRecord((Long) row[0], (String) row[1], (Integer) row[2],
+                    row[3] != null ? (Long) row[3] : 0)));
+        }
+        return builder.build();
+    }
+
+    private void enqueue(String tenant, Consumer<MemberSnapshot.Builder> apply) {
+        pendingChanges.add(new PendingChange(tenant, apply));
+    }
+
+    private static class PendingChange {
+
+        private final String tenant;
+        private final Consumer<MemberSnapshot.Builder> apply;
+
+        private PendingChange(String tenant, Consumer<MemberSnapshot.Builder> apply) {
+            this.tenant = tenant;
+            this.apply = apply;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.readmodel;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 읽기 모델에 보관하는 회원 값. 팀이 없으면 teamId 는 0 이다.
+ */
+@Getter
+@ToString
+public final class MemberRecord {
+
+    private final long id;
+    private final String username;
+    private final int age;
+    private final long teamId;
+
+    public MemberRecord(long id, String username, int age, long teamId) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+    }
+}
@@ -0,0 +1,201 @@
+package study.datajpa.readmodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 한 테넌트의 회원/팀 읽기 모델. 만들어진 뒤에는 바뀌지 않으므로 잠금 없이 여러 스레드가 읽는다.
+ * 변경은 toBuilder() 로 복사본을 만들어 적용하고 새 스냅샷으로 교체한다.
+ * 맵은 segment 단위로 이전 스냅샷과 공유하므로 복사되는 것은 바뀐 키가 속한 segment 와 바뀐 인덱스 배열뿐이다.
+ */
+public final class MemberSnapshot {
+
+    private static final long[] NO_IDS = new long[0];
+    private static final MemberSnapshot EMPTY = new Builder().build();
+
+    private final LongMap<MemberRecord> members;
+    private final SegmentedMap<String, long[]> idsByUsername;
+    private final LongMap<long[]> idsByTeam;
+    private final LongMap<String> teamNames;
+
+    private MemberSnapshot(LongMap<MemberRecord> members, SegmentedMap<String, long[]> idsByUsername,
+                           LongMap<long[]> idsByTeam, LongMap<String> teamNames) {
+        this.members = members;
+        this.idsByUsername = idsByUsername;
+        this.idsByTeam = idsByTeam;
+        this.teamNames = teamNames;
+    }
+
+    public static MemberSnapshot empty() {
+        return EMPTY;
+    }
+
+    public MemberRecord findById(long id) {
+        return members.get(id);
+    }
+
+    public List<MemberRecord> findByUsername(String username) {
+        long[] ids = idsByUsername.get(username);
+        return records(ids != null ? ids : NO_IDS);
+    }
+
+    public List<MemberRecord> findByTeamId(long teamId) {
+        long[] ids = idsByTeam.get(teamId);
+        return records(ids != null ? ids : NO_IDS);
+    }
+
+    public String teamName(long teamId) {
+        return teamNames.get(teamId);
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    private List<MemberRecord> records(long[] ids) {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        List<MemberRecord> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(members.get(id));
+        }
+        return result;
+    }
+
+    public static final class Builder {
+
+        private final LongMap.Builder<MemberRecord> members;
+        private final SegmentedMap.Builder<String, long[]> idsByUsername;
+        private final LongMap.Builder<long[]> idsByTeam;
+        private final LongMap.Builder<String> teamNames;
+
+        // 이번에 바뀐 인덱스 키만 가변 목록으로 들고 있다가 build() 에서 배열로 바꾼다.
+        private final Map<String, IdList> changedUsernames = new HashMap<>();
+        private final Map<Long, IdList> changedTeams = new HashMap<>();
+
+        public Builder() {
+            this.members = new LongMap.Builder<>(0);
+            this.idsByUsername = new SegmentedMap.Builder<>();
+            this.idsByTeam = new LongMap.Builder<>(0);
+            this.teamNames = new LongMap.Builder<>(0);
+        }
+
+        private Builder(MemberSnapshot snapshot) {
+            this.members = snapshot.members.toBuilder();
+            this.idsByUsername = snapshot.idsByUsername.toBuilder();
+            this.idsByTeam = snapshot.idsByTeam.toBuilder();
+            this.teamNames = snapshot.teamNames.toBuilder();
+        }
+
+        public Builder putMember(MemberRecord record) {
+            MemberRecord previous = members.get(record.getId());
+            if (previous != null) {
+                unindex(previous);
+            }
+            members.put(record.getId(), record);
+            if (record.getUsername() != null) {
+                usernameIds(record.getUsername()).add(record.getId());
+            }
+            if (record.getTeamId() != 0) {
+                teamIds(record.getTeamId()).add(record.getId());
+            }
+            return this;
+        }
+
+        public Builder removeMember(long id) {
+            MemberRecord previous = members.get(id);
+            if (previous != null) {
+                unindex(previous);
+                members.remove(id);
+            }
+            return this;
+        }
+
+        public Builder putTeam(long id, String name) {
+            teamNames.put(id, name);
+            return this;
+        }
+
+        public Builder removeTeam(long id) {
+            teamNames.remove(id);
+            return this;
+        }
+
+        public MemberSnapshot build() {
+            changedUsernames.forEach((username, ids) -> {
+                if (ids.size == 0) {
+                    idsByUsername.remove(username);
+                } else {
+                    idsByUsername.put(username, ids.toArray());
+                }
+            });
+            changedTeams.forEach((teamId, ids) -> {
+                if (ids.size == 0) {
+                    idsByTeam.remove(teamId);
+                } else {
+                    idsByTeam.put(teamId, ids.toArray());
+                }
+            });
+            return new MemberSnapshot(members.build(), idsByUsername.build(), idsByTeam.build(), teamNames.build());
+        }
+
+        private void unindex(MemberRecord record) {
+            if (record.getUsername() != null) {
+                usernameIds(record.getUsername()).remove(record.getId());
+            }
+            if (record.getTeamId() != 0) {
+                teamIds(record.getTeamId()).remove(record.getId());
+            }
+        }
+
+        private IdList usernameIds(String username) {
+            return changedUsernames.computeIfAbsent(username, key -> new IdList(idsByUsername.get(key)));
+        }
+
+        private IdList teamIds(long teamId) {
+            return changedTeams.computeIfAbsent(teamId, key -> new IdList(idsByTeam.get(key)));
+        }
+    }
+
+    // 인덱스 배열은 이전 스냅샷과 공유하므로 복사해서 수정한다.
+    private static final class IdList {
+
+        private long[] ids;
+        private int size;
+
+        private IdList(long[] ids) {
+            this.ids = ids != null ? Arrays.copyOf(ids, Math.max(4, ids.length)) : new long[4];
+            this.size = ids != null ? ids.length : 0;
+        }
+
+        private void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
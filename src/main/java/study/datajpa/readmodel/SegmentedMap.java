@@ -0,0 +1,82 @@
+package study.datajpa.readmodel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 키 해시로 나눈 HashMap segment 묶음. 생성 후에는 바뀌지 않는다.
+ * toBuilder() 로 고칠 때는 바뀐 segment 만 복사하고 나머지는 이전 맵과 공유한다. (LongMap 과 같은 방식)
+ */
+final class SegmentedMap<K, V> {
+
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    // null 이면 빈 segment
+    private final Map<K, V>[] segments;
+
+    private SegmentedMap(Map<K, V>[] segments) {
+        this.segments = segments;
+    }
+
+    V get(K key) {
+        Map<K, V> segment = segments[segmentIndex(key)];
+        return segment != null ? segment.get(key) : null;
+    }
+
+    Builder<K, V> toBuilder() {
+        return new Builder<>(segments.clone());
+    }
+
+    private static int segmentIndex(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h >>> (32 - SEGMENT_BITS);
+    }
+
+    static final class Builder<K, V> {
+
+        private Map<K, V>[] segments;
+        private boolean[] owned = new boolean[SEGMENTS];
+
+        @SuppressWarnings("unchecked")
+        Builder() {
+            this.segments = new Map[SEGMENTS];
+        }
+
+        private Builder(Map<K, V>[] segments) {
+            this.segments = segments;
+        }
+
+        V get(K key) {
+            Map<K, V> segment = segments[segmentIndex(key)];
+            return segment != null ? segment.get(key) : null;
+        }
+
+        void put(K key, V value) {
+            writable(segmentIndex(key)).put(key, value);
+        }
+
+        void remove(K key) {
+            int index = segmentIndex(key);
+            if (segments[index] != null) {
+                writable(index).remove(key);
+            }
+        }
+
+        SegmentedMap<K, V> build() {
+            SegmentedMap<K, V> map = new SegmentedMap<>(segments);
+            segments = null;
+            owned = null;
+            return map;
+        }
+
+        private Map<K, V> writable(int index) {
+            if (!owned[index]) {
+                Map<K, V> shared = segments[index];
+                segments[index] = shared != null ? new HashMap<>(shared) : new HashMap<>();
+                owned[index] = true;
+            }
+            return segments[index];
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package study.datajpa.repository;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 조회 시 같이 읽을 연관관계 (엔티티 그래프 attributePaths 와 같은 형식, ex) "team", 한 단계 하위까지 "team.members").
+ * 호출하는 쪽이 필요한 연관관계만 지정해서 쓰지 않는 팀을 join 하거나 N+1 이 생기지 않게 한다.
+ */
+@EqualsAndHashCode
+public final class FetchPlan {
+
+    private static final FetchPlan NONE = new FetchPlan(Collections.emptySet());
+
+    private final Set<String> attributePaths;
+
+    private FetchPlan(Set<String> attributePaths) {
+        this.attributePaths = attributePaths;
+    }
+
+    /**
+     * 연관관계는 모두 지연 로딩
+     */
+    public static FetchPlan none() {
+        return NONE;
+    }
+
+    public static FetchPlan of(String... attributePaths) {
+        for (String path : attributePaths) {
+            validate(path);
+        }
+        return attributePaths.length == 0 ? NONE
+                : new FetchPlan(Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(attributePaths))));
+    }
+
+    public static FetchPlan of(Set<String> attributePaths) {
+        return of(attributePaths.toArray(new String[0]));
+    }
+
+    public Set<String> getAttributePaths() {
+        return attributePaths;
+    }
+
+    public boolean includes(String attributePath) {
+        return attributePaths.contains(attributePath);
+    }
+
+    public boolean isEmpty() {
+        return attributePaths.isEmpty();
+    }
+
+    private static void validate(String path) {
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("빈 연관관계 경로는 쓸 수 없습니다.");
+        }
+        String[] names = path.split("\\.", -1);
+        if (names.length > 2) {
+            throw new IllegalArgumentException("연관관계 경로는 한 단계 하위까지만 지정할 수 있습니다. path = " + path);
+        }
+        for (String name : names) {
+            if (name.isBlank()) {
+                throw new IllegalArgumentException("잘못된 연관관계 경로입니다. path = " + path);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FetchPlan" + attributePaths;
+    }
+}
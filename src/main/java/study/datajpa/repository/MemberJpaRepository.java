@@ -1,8 +1,11 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
+import study.datajpa.event.BulkChangedEvent;
+import study.datajpa.tenant.TenantContext;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -10,11 +13,14 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -68,9 +74,11 @@ public class MemberJpaRepository {
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        int count = em.createQuery("update Member m set m.age = m.age + 1, m.lastModifiedDate = current_timestamp where m.age >= :age and m.deletedAt is null")
                 .setParameter("age", age)
                 .executeUpdate();
+        eventPublisher.publishEvent(new BulkChangedEvent(TenantContext.get(), Member.class));
+        return count;
     }
 
 }
@@ -10,6 +10,7 @@ import study.datajpa.entity.Member;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -45,9 +46,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     Page<Member> findByAge(int age, Pageable pageable);
 
-    @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
+    // 엔티티 전체를 읽지 않고 버전(수정 시각)만 조회
+    @Query("select m.lastModifiedDate from Member m where m.id = :id")
+    Optional<LocalDateTime> findLastModifiedDateById(@Param("id") Long id);
 
     @Query("select m from Member m join fetch m.team")
     List<Member> findMemberFetchJoin();
@@ -71,12 +72,13 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> type);
 
-    @Query(value = "select * from member where username = ?", nativeQuery = true)
+    @Query(value = "select * from member where username = ? and deleted_at is null", nativeQuery = true)
     Member findByNativeQuery(String username);
 
     @Query(value = "select m.member_id as id, m.username, t.name as teamName " +
-            "from member m left join team t ",
-            countQuery = "select count(*) from member"
+            "from member m left join team t on m.team_id = t.team_id " +
+            "where m.deleted_at is null",
+            countQuery = "select count(*) from member where deleted_at is null"
             ,nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
 }
@@ -1,11 +1,55 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberChange;
+import study.datajpa.dto.MemberChangeWatermark;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
 
+    List<Member> search(MemberSearchCondition condition);
+
+    Page<Member> search(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * DB 커서에서 읽는 대로 DTO 를 넘겨준다. 트랜잭션 안에서 사용하고 반드시 close 해야 한다.
+     */
+    Stream<MemberDto> streamMemberDto(int limit);
+
+    /**
+     * member 와 member_archive 를 같이 조회한다. 아카이브된 회원이 필요할 때만 사용
+     */
+    List<MemberDto> findByUsernameIncludingArchive(String username);
+
+    List<MemberDto> findByAgeIncludingArchive(int age);
+
+    /**
+     * watermark 이후에 바뀐 회원을 (lastModifiedDate, id) 순서로 최대 limit 건 조회한다. (삭제된 회원 포함)
+     * 마지막 항목의 watermark() 를 다음 호출에 넘기면 이어서 받는다. 결과가 limit 보다 적으면 끝까지 읽은 것이다.
+     * lastModifiedDate 는 커밋이 아니라 수정 시각이므로, 긴 트랜잭션의 변경을 놓치지 않으려면 watermark 를 현재보다 조금 늦게 유지한다.
+     * member_archive 로 옮겨진 회원과 purge 로 지워진 회원은 포함되지 않는다.
+     */
+    List<MemberChange> findChangesSince(MemberChangeWatermark watermark, int limit);
+
+    /**
+     * fetch plan 의 연관관계만 같이 읽는다. (javax.persistence.fetchgraph)
+     * 페이징 조회이므로 컬렉션 연관관계는 지정할 수 없다. (IllegalArgumentException)
+     */
+    Page<Member> findAll(Pageable pageable, FetchPlan fetchPlan);
+
+    List<Member> findByUsername(String username, FetchPlan fetchPlan);
+
+    /**
+     * age 이상인 회원의 나이를 1 올린다. 벌크 쿼리이므로 영속성 컨텍스트를 비우고, 커밋 후 BulkChangedEvent 를 알린다.
+     */
+    int bulkAgePlus(int age);
+
 }
@@ -1,19 +1,309 @@
 package study.datajpa.repository;
 
-import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberChange;
+import study.datajpa.dto.MemberChangeWatermark;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.event.BulkChangedEvent;
+import study.datajpa.repository.support.QueryGuardEntityManager;
+import study.datajpa.tenant.TenantContext;
 
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
-@RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final EntityManager em;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public MemberRepositoryImpl(EntityManager em, ApplicationEventPublisher eventPublisher) {
+        // 쿼리 가드의 최대 행 수가 커스텀 쿼리에도 걸리도록
+        this.em = QueryGuardEntityManager.wrap(em);
+        this.eventPublisher = eventPublisher;
+    }
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    public List<Member> search(MemberSearchCondition condition) {
+        SearchQuery searchQuery = SearchQuery.of(condition);
+        return searchQuery.bind(em.createQuery("select m from Member m" + searchQuery.clause, Member.class))
+                .getResultList();
+    }
+
+    @Override
+    public Page<Member> search(MemberSearchCondition condition, Pageable pageable) {
+        SearchQuery searchQuery = SearchQuery.of(condition);
+
+        String jpql = QueryUtils.applySorting("select m from Member m" + searchQuery.clause, pageable.getSort(), "m");
+        TypedQuery<Member> contentQuery = searchQuery.bind(em.createQuery(jpql, Member.class));
+        if (pageable.isPaged()) {
+            contentQuery.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        List<Member> content = contentQuery.getResultList();
+
+        TypedQuery<Long> countQuery = searchQuery.bind(
+                em.createQuery("select count(m) from Member m" + searchQuery.clause, Long.class));
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::getSingleResult);
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int limit) {
+        // 엔티티가 아닌 DTO 로 읽어서 영속성 컨텍스트가 커지지 않는다.
+        TypedQuery<MemberDto> query = em.createQuery(
+                        "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                                " from Member m left join m.team t" +
+                                " order by m.id", MemberDto.class)
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultStream();
+    }
+
+    @Override
+    public List<MemberDto> findByUsernameIncludingArchive(String username) {
+        return findIncludingArchive("username = :value", username);
+    }
+
+    @Override
+    public List<MemberDto> findByAgeIncludingArchive(int age) {
+        return findIncludingArchive("age = :value", age);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MemberDto> findIncludingArchive(String predicate, Object value) {
+        List<Object[]> rows = em.createNativeQuery(
+                        "select m.member_id, m.username, t.name from member m" +
+                                " left join team t on m.team_id = t.team_id" +
+                                " where m.deleted_at is null and m." + predicate +
+                                " union all" +
+                                " select a.member_id, a.username, t.name from member_archive a" +
+                                " left join team t on a.team_id = t.team_id" +
+                                " where a." + predicate)
+                .setParameter("value", value)
+                .getResultList();
+
+        List<MemberDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new MemberDto(((Number) row[0]).longValue(), (String) row[1], (String) row[2]));
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<MemberChange> findChangesSince(MemberChangeWatermark watermark, int limit) {
+        // @Where(deleted_at is null) 를 피하려고 네이티브 쿼리로 읽는다. idx_member_last_modified 범위 스캔
+        Query query;
+        if (watermark.isInitial()) {
+            query = em.createNativeQuery(
+                    "select member_id, username, age, team_id, last_modified_date, deleted_at from member" +
+                            " where last_modified_date is not null" +
+                            " order by last_modified_date, member_id limit :limit");
+        } else {
+            query = em.createNativeQuery(
+                            "select member_id, username, age, team_id, last_modified_date, deleted_at from member" +
+                                    " where last_modified_date >= :date" +
+                                    " and (last_modified_date > :date or member_id > :id)" +
+                                    " order by last_modified_date, member_id limit :limit")
+                    .setParameter("date", watermark.getLastModifiedDate())
+                    .setParameter("id", watermark.getId());
+        }
+        List<Object[]> rows = query.setParameter("limit", limit).getResultList();
+
+        List<MemberChange> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new MemberChange(((Number) row[0]).longValue(), (String) row[1], ((Number) row[2]).intValue(),
+                    row[3] != null ? ((Number) row[3]).longValue() : null, toLocalDateTime(row[4]), toLocalDateTime(row[5])));
+        }
+        return result;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    @Override
+    public Page<Member> findAll(Pageable pageable, FetchPlan fetchPlan) {
+        requireToOne(fetchPlan);
+        // 정렬 속성은 JPQL 에 붙이기 전에 확인한다. (없는 속성이면 PropertyReferenceException)
+        pageable.getSort().forEach(order -> PropertyPath.from(order.getProperty(), Member.class));
+        String jpql = QueryUtils.applySorting("select m from Member m", pageable.getSort(), "m");
+        TypedQuery<Member> contentQuery = withFetchPlan(em.createQuery(jpql, Member.class), fetchPlan);
+        if (pageable.isPaged()) {
+            contentQuery.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        List<Member> content = contentQuery.getResultList();
+
+        TypedQuery<Long> countQuery = em.createQuery("select count(m) from Member m", Long.class);
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::getSingleResult);
+    }
+
+    @Override
+    public List<Member> findByUsername(String username, FetchPlan fetchPlan) {
+        return withFetchPlan(em.createQuery("select m from Member m where m.username = :username", Member.class), fetchPlan)
+                .setParameter("username", username)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        int count = em.createQuery("update Member m set m.age = m.age + 1, m.lastModifiedDate = current_timestamp" +
+                        " where m.age >= :age and m.deletedAt is null")
+                .setParameter("age", age)
+                .executeUpdate();
+        // 영속성 컨텍스트의 엔티티는 바뀐 값을 모르므로 비운다. (@Modifying(clearAutomatically = true) 와 같음)
+        em.clear();
+        // 벌크 쿼리는 Hibernate 이벤트가 없으므로 따로 알린다. (읽기 모델 등)
+        eventPublisher.publishEvent(new BulkChangedEvent(TenantContext.get(), Member.class));
+        return count;
+    }
+
+    /**
+     * 컬렉션을 fetch 하면 Hibernate 가 페이징을 메모리에서 하므로 페이징 조회에서는 to-one 연관관계만 허용한다.
+     */
+    private void requireToOne(FetchPlan fetchPlan) {
+        for (String path : fetchPlan.getAttributePaths()) {
+            ManagedType<?> type = em.getMetamodel().entity(Member.class);
+            for (String name : path.split("\\.")) {
+                if (type == null) {
+                    throw new IllegalArgumentException("연관관계가 아닌 속성의 하위 경로입니다. path = " + path);
+                }
+                Attribute<?, ?> attribute = type.getAttribute(name);
+                if (attribute.isCollection()) {
+                    throw new IllegalArgumentException("페이징 조회에는 컬렉션 연관관계를 같이 읽을 수 없습니다. path = " + path);
+                }
+                type = attribute.isAssociation() ? em.getMetamodel().managedType(attribute.getJavaType()) : null;
+            }
+        }
+    }
+
+    private TypedQuery<Member> withFetchPlan(TypedQuery<Member> query, FetchPlan fetchPlan) {
+        if (fetchPlan.isEmpty()) {
+            return query;
+        }
+        EntityGraph<Member> graph = em.createEntityGraph(Member.class);
+        for (String path : fetchPlan.getAttributePaths()) {
+            int dot = path.indexOf('.');
+            if (dot < 0) {
+                graph.addAttributeNodes(path);
+            } else {
+                // 한 단계 하위 연관관계까지 (ex) "team.members", FetchPlan.of 에서 검증)
+                graph.addSubgraph(path.substring(0, dot)).addAttributeNodes(path.substring(dot + 1));
+            }
+        }
+        return query.setHint(EntityGraphType.FETCH.getKey(), graph);
+    }
+
+    /**
+     * 검색 조건을 파라미터 바인딩 JPQL 로 변환한다.
+     * 조건은 항상 같은 순서로 붙이고 값은 리터럴이 아닌 파라미터로만 넘기기 때문에
+     * 같은 조건 조합이면 같은 쿼리 문자열이 나온다. (Hibernate 쿼리 플랜 캐시, statement 캐시 재사용)
+     */
+    private static class SearchQuery {
+
+        private final String clause;
+        private final Map<String, Object> parameters;
+
+        private SearchQuery(String clause, Map<String, Object> parameters) {
+            this.clause = clause;
+            this.parameters = parameters;
+        }
+
+        static SearchQuery of(MemberSearchCondition condition) {
+            StringBuilder join = new StringBuilder();
+            StringBuilder where = new StringBuilder();
+            Map<String, Object> parameters = new LinkedHashMap<>();
+
+            if (hasText(condition.getTeamName())) {
+                join.append(" join m.team t");
+                and(where, "t.name = :teamName");
+                parameters.put("teamName", condition.getTeamName());
+            }
+            if (hasText(condition.getUsernamePrefix())) {
+                and(where, "m.username like :usernamePrefix escape '\\'");
+                parameters.put("usernamePrefix", escapeLike(condition.getUsernamePrefix()) + "%");
+            }
+            if (condition.getAgeGoe() != null) {
+                and(where, "m.age >= :ageGoe");
+                parameters.put("ageGoe", condition.getAgeGoe());
+            }
+            if (condition.getAgeLoe() != null) {
+                and(where, "m.age <= :ageLoe");
+                parameters.put("ageLoe", condition.getAgeLoe());
+            }
+            if (condition.getCreatedFrom() != null) {
+                and(where, "m.createdDate >= :createdFrom");
+                parameters.put("createdFrom", condition.getCreatedFrom());
+            }
+            if (condition.getCreatedTo() != null) {
+                and(where, "m.createdDate < :createdTo");
+                parameters.put("createdTo", condition.getCreatedTo());
+            }
+            if (condition.getLastModifiedFrom() != null) {
+                and(where, "m.lastModifiedDate >= :lastModifiedFrom");
+                parameters.put("lastModifiedFrom", condition.getLastModifiedFrom());
+            }
+            if (condition.getLastModifiedTo() != null) {
+                and(where, "m.lastModifiedDate < :lastModifiedTo");
+                parameters.put("lastModifiedTo", condition.getLastModifiedTo());
+            }
+
+            return new SearchQuery(join.toString() + where, parameters);
+        }
+
+        <T> TypedQuery<T> bind(TypedQuery<T> query) {
+            parameters.forEach(query::setParameter);
+            return query;
+        }
+
+        private static void and(StringBuilder where, String predicate) {
+            where.append(where.length() == 0 ? " where " : " and ").append(predicate);
+        }
+
+        private static boolean hasText(String value) {
+            return value != null && !value.isBlank();
+        }
+
+        private static String escapeLike(String value) {
+            return value.replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_");
+        }
+    }
 }
@@ -0,0 +1,157 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import study.datajpa.repository.FetchPlan;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 호출 위치(site)별로 어떤 연관관계를 실제로 쓰는지 배워서 fetch plan 을 고른다.
+ * <ol>
+ *     <li>advise(): 지금까지 배운 대로 plan 을 준다. 가끔(explore-every) 또는 표본이 적으면 아무것도 같이 읽지 않는 plan 을 준다.</li>
+ *     <li>record(): 결과를 다 쓴 뒤(DTO 변환 후) 호출한다. plan 에 없던 to-one 연관관계 프록시가 초기화되어 있으면 그 연관관계를 사용한 것이다.</li>
+ * </ol>
+ * 사용 비율은 지수 이동 평균으로 관리하고 threshold 이상이면 같이 읽는다. 같이 읽은 연관관계는 사용 여부를 알 수 없으므로 탐색 호출에서만 다시 측정한다.
+ * to-one 연관관계만 대상이다. (컬렉션 fetch 는 페이징과 같이 쓸 수 없음) explore-every 가 0 이하면 다시 측정하지 않는다.
+ */
+@Slf4j
+@Component
+public class FetchPlanAdvisor {
+
+    private static final double DECAY = 0.9;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final int minSamples;
+    private final double threshold;
+    private final int exploreEvery;
+
+    private final Map<Class<?>, List<Field>> candidates = new ConcurrentHashMap<>();
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+
+    public FetchPlanAdvisor(EntityManagerFactory entityManagerFactory,
+                            @Value("${app.fetch-plan.min-samples:20}") int minSamples,
+                            @Value("${app.fetch-plan.threshold:0.5}") double threshold,
+                            @Value("${app.fetch-plan.explore-every:50}") int exploreEvery) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.minSamples = minSamples;
+        this.threshold = threshold;
+        this.exploreEvery = exploreEvery;
+    }
+
+    public FetchPlan advise(String site) {
+        return sites.computeIfAbsent(site, Site::new).advise();
+    }
+
+    /**
+     * advise() 로 받은 plan 으로 읽은 엔티티를 모두 사용한 뒤에 호출한다. (영속성 컨텍스트가 열려 있는 동안)
+     */
+    public void record(String site, FetchPlan plan, Collection<?> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Class<?> entityType = Hibernate.getClass(entities.iterator().next());
+        Site stats = sites.computeIfAbsent(site, Site::new);
+        for (Field field : candidates(entityType)) {
+            if (plan.includes(field.getName())) {
+                continue;
+            }
+            Boolean touched = touched(entities, field);
+            if (touched != null) {
+                stats.sample(field.getName(), touched);
+            }
+        }
+    }
+
+    public Map<String, Double> usage(String site) {
+        Site stats = sites.get(site);
+        return stats == null ? Collections.emptyMap() : Collections.unmodifiableMap(stats.usage);
+    }
+
+    /**
+     * 엔티티 타입별 to-one 연관관계 필드. 요청마다 리플렉션으로 찾지 않도록 캐시한다.
+     */
+    private List<Field> candidates(Class<?> entityType) {
+        return candidates.computeIfAbsent(entityType, type -> {
+            EntityType<?> entity = entityManagerFactory.getMetamodel().entity(type);
+            List<Field> fields = new ArrayList<>();
+            for (Attribute<?, ?> attribute : entity.getAttributes()) {
+                if (attribute.isAssociation() && !attribute.isCollection()) {
+                    Field field = ReflectionUtils.findField(type, attribute.getName());
+                    if (field != null) {
+                        ReflectionUtils.makeAccessible(field);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+
+    /**
+     * 연관관계 값이 있는 엔티티 중 하나라도 초기화되어 있으면 사용한 것으로 본다. 값이 모두 null 이면 판단하지 않는다.
+     */
+    private static Boolean touched(Collection<?> entities, Field field) {
+        Boolean touched = null;
+        for (Object entity : entities) {
+            // 필드를 직접 읽어서 getter 로 프록시가 초기화되지 않게 한다.
+            Object value = ReflectionUtils.getField(field, entity);
+            if (value == null) {
+                continue;
+            }
+            if (Hibernate.isInitialized(value)) {
+                return true;
+            }
+            touched = false;
+        }
+        return touched;
+    }
+
+    private class Site {
+
+        private final String name;
+        private final Map<String, Double> usage = new ConcurrentHashMap<>();
+        private final Map<String, Integer> samples = new ConcurrentHashMap<>();
+        private volatile FetchPlan learned = FetchPlan.none();
+        private long calls;
+
+        private Site(String name) {
+            this.name = name;
+        }
+
+        private FetchPlan advise() {
+            boolean explore;
+            synchronized (this) {
+                explore = exploreEvery > 0 && ++calls % exploreEvery == 0;
+            }
+            return explore ? FetchPlan.none() : learned;
+        }
+
+        private synchronized void sample(String attribute, boolean touched) {
+            int count = samples.merge(attribute, 1, Integer::sum);
+            double ratio = usage.merge(attribute, touched ? 1.0 : 0.0,
+                    (previous, current) -> previous * DECAY + current * (1 - DECAY));
+
+            Set<String> attributes = new LinkedHashSet<>(learned.getAttributePaths());
+            boolean fetch = count >= minSamples && ratio >= threshold;
+            if (fetch ? attributes.add(attribute) : attributes.remove(attribute)) {
+                learned = FetchPlan.of(attributes);
+                log.info("fetch plan 변경 site={}, plan={}, usage({})={}", name, learned, attribute, String.format("%.2f", ratio));
+            }
+        }
+    }
+}
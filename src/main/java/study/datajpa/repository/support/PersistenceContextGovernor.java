@@ -0,0 +1,110 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * 트랜잭션 안에서 리포지토리를 호출할 때마다 영속성 컨텍스트가 관리하는 엔티티 수를 확인한다.
+ * <ul>
+ *     <li>warn-entities 를 넘으면 경고 로그 (배수를 넘을 때마다 한 번씩)</li>
+ *     <li>mode: flush-clear 이고 flush-clear-entities 를 넘으면 flush + clear</li>
+ * </ul>
+ * clear 후에는 호출자가 들고 있던 엔티티가 준영속 상태가 되므로, 엔티티를 계속 수정하는 흐름에서는 warn 모드를 쓴다.
+ * 관리 엔티티 수와 추정 메모리(엔티티 수 * estimated-bytes-per-entity)는 메트릭으로 남긴다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class PersistenceContextGovernor implements RepositoryInvocationInterceptor {
+
+    private static final String WARNED_LEVEL = "study.persistence-context.warned-level";
+
+    public enum Mode {
+        WARN, FLUSH_CLEAR
+    }
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Mode mode;
+    private final int warnEntities;
+    private final int flushClearEntities;
+    private final long estimatedBytesPerEntity;
+
+    private final DistributionSummary managedEntities;
+    private final DistributionSummary estimatedBytes;
+    private final Counter warnings;
+    private final Counter autoClears;
+
+    public PersistenceContextGovernor(MeterRegistry meterRegistry,
+                                      @Value("${app.persistence-context.mode:warn}") Mode mode,
+                                      @Value("${app.persistence-context.warn-entities:5000}") int warnEntities,
+                                      @Value("${app.persistence-context.flush-clear-entities:10000}") int flushClearEntities,
+                                      @Value("${app.persistence-context.estimated-bytes-per-entity:1024}") long estimatedBytesPerEntity) {
+        this.mode = mode;
+        this.warnEntities = warnEntities;
+        this.flushClearEntities = flushClearEntities;
+        this.estimatedBytesPerEntity = estimatedBytesPerEntity;
+
+        this.managedEntities = DistributionSummary.builder("jpa.persistence.context.managed.entities")
+                .description("managed entities per persistence context, sampled after repository calls")
+                .register(meterRegistry);
+        this.estimatedBytes = DistributionSummary.builder("jpa.persistence.context.estimated.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.warnings = meterRegistry.counter("jpa.persistence.context.warnings");
+        this.autoClears = meterRegistry.counter("jpa.persistence.context.auto.clears");
+    }
+
+    @Override
+    public Object invoke(RepositoryInformation repository, MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            checkpoint();
+        }
+        return result;
+    }
+
+    /**
+     * 현재 트랜잭션의 영속성 컨텍스트 크기를 확인한다. 배치 작업에서는 루프 중간에 직접 호출해도 된다.
+     */
+    public void checkpoint() {
+        int count = em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+        managedEntities.record(count);
+        estimatedBytes.record((double) count * estimatedBytesPerEntity);
+
+        if (mode == Mode.FLUSH_CLEAR && flushClearEntities > 0 && count >= flushClearEntities) {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                em.flush();
+            }
+            em.clear();
+            autoClears.increment();
+            log.info("[persistence-context] managed entities = {}, flush + clear", count);
+            return;
+        }
+
+        if (warnEntities > 0 && count >= warnEntities) {
+            int level = count / warnEntities;
+            Object warnedLevel = em.getProperties().get(WARNED_LEVEL);
+            if (!(warnedLevel instanceof Integer) || (Integer) warnedLevel < level) {
+                em.setProperty(WARNED_LEVEL, level);
+                warnings.increment();
+                log.warn("[persistence-context] managed entities = {}, estimated {}KB",
+                        count, count * estimatedBytesPerEntity / 1024);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package study.datajpa.repository.support;
+
+import org.springframework.util.ClassUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.StoredProcedureQuery;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * 리포지토리가 쿼리를 만드는 EntityManager 를 감싸서, {@link QueryGuardInterceptor} 가 최대 행 수를 걸어 둔 호출 동안
+ * 만들어지는 쿼리에 setMaxResults(maxRows + 1) 을 적용한다. 한 행을 더 읽어서 초과 여부를 판단한다.
+ * 페이징처럼 나중에 setMaxResults 를 다시 부르는 경우에도 같은 한도로 잘라낸다.
+ */
+public final class QueryGuardEntityManager {
+
+    private static final ThreadLocal<Integer> MAX_ROWS = new ThreadLocal<>();
+
+    private QueryGuardEntityManager() {
+    }
+
+    public static EntityManager wrap(EntityManager em) {
+        if (Proxy.isProxyClass(em.getClass()) && Proxy.getInvocationHandler(em) instanceof EntityManagerHandler) {
+            return em;
+        }
+        return (EntityManager) Proxy.newProxyInstance(QueryGuardEntityManager.class.getClassLoader(),
+                ClassUtils.getAllInterfaces(em), new EntityManagerHandler(em));
+    }
+
+    /**
+     * 현재 스레드의 최대 행 수를 바꾸고 이전 값을 돌려준다. null 이면 제한 없음.
+     */
+    static Integer bind(Integer maxRows) {
+        Integer previous = MAX_ROWS.get();
+        restore(maxRows);
+        return previous;
+    }
+
+    static void restore(Integer maxRows) {
+        if (maxRows == null) {
+            MAX_ROWS.remove();
+        } else {
+            MAX_ROWS.set(maxRows);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class EntityManagerHandler implements InvocationHandler {
+
+        private final EntityManager target;
+
+        private EntityManagerHandler(EntityManager target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryGuardEntityManager.invoke(target, method, args);
+            Integer maxRows = MAX_ROWS.get();
+            if (maxRows == null || !(result instanceof Query) || result instanceof StoredProcedureQuery) {
+                return result;
+            }
+            Query query = (Query) result;
+            query.setMaxResults(limit(query.getMaxResults(), maxRows));
+            return Proxy.newProxyInstance(QueryGuardEntityManager.class.getClassLoader(),
+                    ClassUtils.getAllInterfaces(query), new QueryHandler(query, maxRows));
+        }
+    }
+
+    private static final class QueryHandler implements InvocationHandler {
+
+        private final Query target;
+        private final int maxRows;
+
+        private QueryHandler(Query target, int maxRows) {
+            this.target = target;
+            this.maxRows = maxRows;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("setMaxResults") && args != null && args.length == 1) {
+                args[0] = limit((Integer) args[0], maxRows);
+            }
+            Object result = QueryGuardEntityManager.invoke(target, method, args);
+            // 메서드 체이닝이 감싼 쿼리를 벗어나지 않도록
+            return result == target ? proxy : result;
+        }
+    }
+
+    private static int limit(int requested, int maxRows) {
+        return Math.min(requested, maxRows + 1);
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * JPA 리포지토리가 {@link QueryGuardEntityManager} 로 쿼리를 만들도록 EntityManager 를 바꿔 끼운다.
+ * 커스텀 구현(XxxRepositoryImpl)은 생성자에서 직접 감싼다.
+ */
+@Component
+public class QueryGuardEntityManagerInstaller implements BeanPostProcessor {
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public QueryGuardEntityManagerInstaller(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof JpaRepositoryFactoryBean) {
+            ((JpaRepositoryFactoryBean<?, ?, ?>) bean).setEntityManager(QueryGuardEntityManager.wrap(
+                    SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject())));
+        }
+        return bean;
+    }
+}
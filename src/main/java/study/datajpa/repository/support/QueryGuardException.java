@@ -0,0 +1,10 @@
+package study.datajpa.repository.support;
+
+import org.springframework.dao.NonTransientDataAccessException;
+
+public class QueryGuardException extends NonTransientDataAccessException {
+
+    public QueryGuardException(String msg) {
+        super(msg);
+    }
+}
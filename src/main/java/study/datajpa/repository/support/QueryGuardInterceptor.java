@@ -0,0 +1,164 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 리포지토리 메서드별 쿼리 타임아웃과 최대 결과 행 수를 적용한다. ({@link QueryGuardProperties})
+ * 타임아웃은 호출 동안 EntityManager 의 javax.persistence.query.timeout 속성으로 걸어서
+ * 그 안에서 만들어지는 모든 쿼리(메서드 이름 쿼리, @Query, 네이티브, 커스텀 구현)에 적용된다.
+ * 최대 행 수는 {@link QueryGuardEntityManager} 가 쿼리에 maxRows + 1 로 걸고, 결과(List, Slice, Stream)에 한 행이 더 있으면 넘친 것으로 본다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryGuardInterceptor implements RepositoryInvocationInterceptor {
+
+    private static final String TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final QueryGuardProperties properties;
+    private final TransactionTemplate supportsTx;
+
+    public QueryGuardInterceptor(QueryGuardProperties properties, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.supportsTx = new TransactionTemplate(transactionManager);
+        this.supportsTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+    }
+
+    @Override
+    public Object invoke(RepositoryInformation repository, MethodInvocation invocation) throws Throwable {
+        String method = repository.getRepositoryInterface().getSimpleName() + "." + invocation.getMethod().getName();
+        Duration timeout = properties.timeoutFor(method);
+        int maxRows = properties.maxRowsFor(method);
+        if (timeout == null && maxRows <= 0) {
+            return invocation.proceed();
+        }
+
+        // 중첩된 리포지토리 호출에는 그 메서드의 한도만 적용되도록 항상 바꿔 끼우고 되돌린다
+        Integer previous = QueryGuardEntityManager.bind(maxRows > 0 ? maxRows : null);
+        Object result;
+        try {
+            result = timeout == null ? invocation.proceed() : proceedWithTimeout(invocation, timeout);
+        } finally {
+            QueryGuardEntityManager.restore(previous);
+        }
+        return maxRows > 0 ? limitRows(method, result, maxRows) : result;
+    }
+
+    private Object proceedWithTimeout(MethodInvocation invocation, Duration timeout) throws Throwable {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 트랜잭션 밖에서 호출되면 쿼리마다 EntityManager 가 새로 만들어지므로,
+            // 호출 동안 하나의 EntityManager 를 묶어 두고 속성을 건다. (SUPPORTS: 실제 트랜잭션은 시작하지 않음)
+            Object[] result = new Object[1];
+            Throwable[] error = new Throwable[1];
+            supportsTx.executeWithoutResult(status -> {
+                try {
+                    result[0] = proceedWithTimeout(invocation, timeout);
+                } catch (Throwable e) {
+                    error[0] = e;
+                }
+            });
+            if (error[0] != null) {
+                throw error[0];
+            }
+            return result[0];
+        }
+
+        Object previous = em.getProperties().get(TIMEOUT_HINT);
+        em.setProperty(TIMEOUT_HINT, (int) timeout.toMillis());
+        try {
+            return invocation.proceed();
+        } finally {
+            em.setProperty(TIMEOUT_HINT, previous != null ? previous : 0);
+        }
+    }
+
+    private Object limitRows(String method, Object result, int maxRows) {
+        if (result instanceof List) {
+            List<?> list = (List<?>) result;
+            return list.size() > maxRows ? new ArrayList<>(overflow(method, list, maxRows)) : result;
+        }
+        if (result instanceof Page) {
+            Page<?> page = (Page<?>) result;
+            if (page.getNumberOfElements() <= maxRows) {
+                return result;
+            }
+            // 내용 쿼리가 maxRows + 1 로 잘렸으므로 전체 건수도 그 이상이라는 것만 보장된다
+            return new PageImpl<>(overflow(method, page.getContent(), maxRows), page.getPageable(),
+                    Math.max(page.getTotalElements(), maxRows + 1L));
+        }
+        if (result instanceof Slice) {
+            Slice<?> slice = (Slice<?>) result;
+            if (slice.getNumberOfElements() <= maxRows) {
+                return result;
+            }
+            return new SliceImpl<>(overflow(method, slice.getContent(), maxRows), slice.getPageable(), true);
+        }
+        if (result instanceof Stream) {
+            Stream<?> stream = (Stream<?>) result;
+            if (properties.getMode() == QueryGuardProperties.Mode.TRUNCATE) {
+                return stream.limit(maxRows);
+            }
+            Iterator<?> rows = stream.iterator();
+            Iterator<Object> guarded = new Iterator<Object>() {
+                private int count;
+
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    Object row = rows.next();
+                    if (++count > maxRows) {
+                        throw exceeded(method, count, maxRows);
+                    }
+                    return row;
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(guarded, Spliterator.ORDERED), false)
+                    .onClose(stream::close);
+        }
+        return result;
+    }
+
+    private <T> List<T> overflow(String method, List<T> rows, int maxRows) {
+        if (properties.getMode() == QueryGuardProperties.Mode.FAIL) {
+            throw exceeded(method, rows.size(), maxRows);
+        }
+        log.warn("[query-guard] {} 결과가 최대 행 수 {}건을 넘어 잘라서 반환", method, maxRows);
+        return rows.subList(0, maxRows);
+    }
+
+    private QueryGuardException exceeded(String method, int rows, int maxRows) {
+        // 쿼리를 maxRows + 1 로 잘랐으므로 rows 는 실제 건수가 아니라 한도를 넘었다는 표시다
+        return new QueryGuardException(method + " 결과가 최대 행 수를 넘었습니다. rows > " + (rows - 1) + ", max-rows = " + maxRows);
+    }
+}
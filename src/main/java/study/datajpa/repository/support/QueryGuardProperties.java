@@ -0,0 +1,87 @@
+package study.datajpa.repository.support;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 리포지토리 쿼리 실행 제한 (app.query-guard)
+ * <pre>
+ * app.query-guard:
+ *   timeout: 10s
+ *   max-rows: 10000
+ *   mode: fail
+ *   methods:
+ *     "[MemberRepository.findAll]":
+ *       timeout: 3s
+ *       max-rows: 2000
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.query-guard")
+public class QueryGuardProperties {
+
+    /**
+     * 기본 쿼리 타임아웃. JDBC 타임아웃은 초 단위이므로 1초 미만은 의미가 없다. null 이면 제한 없음
+     */
+    private Duration timeout;
+
+    /**
+     * 기본 최대 결과 행 수. 0 이면 제한 없음
+     */
+    private int maxRows;
+
+    /**
+     * 최대 행 수를 넘었을 때 동작
+     */
+    private Mode mode = Mode.FAIL;
+
+    /**
+     * 메서드별 설정. key = 리포지토리 인터페이스 이름.메서드 이름
+     */
+    private Map<String, Limit> methods = new HashMap<>();
+
+    /**
+     * 이 시간보다 오래 걸린 SQL 은 SlowQueryRecorder 에 기록
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+    private int slowQueryBufferSize = 100;
+
+    /**
+     * 느린 select 의 실행 계획(EXPLAIN)을 같이 기록할지
+     */
+    private boolean explain = true;
+
+    public Duration timeoutFor(String method) {
+        Limit limit = methods.get(method);
+        return limit != null && limit.getTimeout() != null ? limit.getTimeout() : timeout;
+    }
+
+    public int maxRowsFor(String method) {
+        Limit limit = methods.get(method);
+        return limit != null && limit.getMaxRows() != null ? limit.getMaxRows() : maxRows;
+    }
+
+    @Data
+    public static class Limit {
+        private Duration timeout;
+        private Integer maxRows;
+    }
+
+    public enum Mode {
+        /**
+         * 예외 발생
+         */
+        FAIL,
+        /**
+         * 앞에서부터 max-rows 건만 반환
+         */
+        TRUNCATE
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * 리포지토리 프록시를 만들 때 {@link RepositoryInvocationInterceptor} 빈들을 advice 로 추가한다.
+ */
+@Component
+public class RepositoryInterceptorRegistrar implements BeanPostProcessor {
+
+    private final ObjectProvider<RepositoryInvocationInterceptor> interceptors;
+
+    public RepositoryInterceptorRegistrar(ObjectProvider<RepositoryInvocationInterceptor> interceptors) {
+        this.interceptors = interceptors;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                            interceptors.orderedStream().forEach(interceptor ->
+                                    proxyFactory.addAdvice((MethodInterceptor) invocation ->
+                                            interceptor.invoke(information, invocation)))));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,14 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.repository.core.RepositoryInformation;
+
+/**
+ * 모든 Spring Data 리포지토리 메서드 호출 앞뒤에 끼워 넣을 처리.
+ * 빈으로 등록하면 {@link RepositoryInterceptorRegistrar} 가 리포지토리 프록시에 추가한다.
+ */
+public interface RepositoryInvocationInterceptor {
+
+    Object invoke(RepositoryInformation repository, MethodInvocation invocation) throws Throwable;
+
+}
@@ -0,0 +1,47 @@
+package study.datajpa.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.dto.MemberDto;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ex) /members/search?q=mem&mode=contains, /members/search?q=teamA&target=team_name&mode=fuzzy
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.search.enabled", havingValue = "true")
+public class MemberSearchController {
+
+    private final MemberSearchIndex memberSearchIndex;
+
+    @GetMapping("/members/search")
+    public Page<MemberDto> search(@RequestParam("q") String text,
+                                  @RequestParam(defaultValue = "username") String target,
+                                  @RequestParam(defaultValue = "prefix") String mode,
+                                  @PageableDefault(size = 20) Pageable pageable) {
+        return memberSearchIndex.search(
+                parse(MemberSearchIndex.Target.class, "target", target),
+                parse(MemberSearchIndex.Mode.class, "mode", mode),
+                text, pageable);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    name + " 는 " + Arrays.toString(type.getEnumConstants()).toLowerCase(Locale.ROOT) + " 중 하나여야 합니다.");
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package study.datajpa.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.event.BulkChangedEvent;
+import study.datajpa.event.EntityChangedEvent;
+import study.datajpa.tenant.TenantContext;
+import study.datajpa.tenant.Tenants;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 회원 username, 팀 이름 검색용 Lucene 인덱스. (app.search.enabled=true 일 때만)
+ * 테넌트마다 index-dir/테넌트 디렉터리에 따로 두고, 시작 시 DB 에서 다시 만든다.
+ * 이후 변경은 커밋된 변경(EntityChangedEvent)을 별도 스레드에서 순서대로 반영하므로 검색 결과는 커밋보다 조금 늦을 수 있다.
+ * 벌크 쿼리로 바뀐 행(보관/영구 삭제 작업)은 BulkChangedEvent 를 받으면 해당 테넌트 인덱스를 다시 만들어 반영한다.
+ *
+ * <pre>
+ * 필드          : 회원 문서(id, username, team_id), 팀 문서(id, name)
+ * PREFIX/FUZZY : 소문자로 바꾼 전체 값(keyword)에 대해 PrefixQuery / FuzzyQuery
+ * CONTAINS     : 3-gram 필드에 PhraseQuery (연속된 3-gram 이므로 부분 문자열 일치). 3자 미만이면 WildcardQuery
+ * </pre>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.enabled", havingValue = "true")
+public class MemberSearchIndex {
+
+    public enum Target {
+        USERNAME, TEAM_NAME
+    }
+
+    public enum Mode {
+        PREFIX, FUZZY, CONTAINS
+    }
+
+    private static final int GRAM = 3;
+    private static final int LOAD_FETCH_SIZE = 1000;
+    private static final int MAX_MATCHED_TEAMS = 1024;
+
+    private static final String TYPE = "type";
+    private static final String TYPE_MEMBER = "member";
+    private static final String TYPE_TEAM = "team";
+    private static final String ID = "id";
+    private static final String KEY = "key";
+    private static final String NAME = "name";
+    private static final String NAME_GRAMS = "name_grams";
+    private static final String TEAM_ID = "team_id";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Tenants tenants;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path indexDir;
+    private final int maxPageSize;
+
+    private final Map<String, TenantIndex> indexes = new ConcurrentHashMap<>();
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MemberSearchIndex(Tenants tenants,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.search.index-dir:./build/search-index}") String indexDir,
+                             @Value("${app.search.max-page-size:100}") int maxPageSize) {
+        this.tenants = tenants;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.indexDir = Paths.get(indexDir);
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * 현재 테넌트에서 검색한다. 결과는 점수순이고 같은 점수면 색인된 순서다.
+     */
+    public Page<MemberDto> search(Target target, Mode mode, String text, Pageable pageable) {
+        TenantIndex index = indexes.get(TenantContext.get());
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        if (index == null || value.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (pageable.getPageSize() > maxPageSize) {
+            pageable = PageRequest.of(pageable.getPageNumber(), maxPageSize, pageable.getSort());
+        }
+        int size = pageable.getPageSize();
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - size);
+
+        try {
+            IndexSearcher searcher = index.searchers.acquire();
+            try {
+                Query query = target == Target.USERNAME
+                        ? ofType(TYPE_MEMBER, match(mode, value))
+                        : membersOfTeams(searcher, ofType(TYPE_TEAM, match(mode, value)));
+
+                TopDocs topDocs = searcher.search(query, offset + size);
+                List<MemberDto> content = new ArrayList<>(size);
+                ScoreDoc[] hits = topDocs.scoreDocs;
+                for (int i = offset; i < hits.length; i++) {
+                    Document document = searcher.doc(hits[i].doc);
+                    long teamId = document.getField(TEAM_ID).numericValue().longValue();
+                    content.add(new MemberDto(document.getField(ID).numericValue().longValue(),
+                            document.get(NAME), teamId != 0 ? index.teamNames.get(teamId) : null));
+                }
+                return new PageImpl<>(content, pageable, searcher.count(query));
+            } finally {
+                index.searchers.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 모든 테넌트 인덱스를 다시 만들고 끝날 때까지 기다린다.
+     * 커밋 이벤트 반영과 섞이지 않도록 인덱스 스레드에서 만든다. 만드는 동안 커밋된 변경은 그 뒤에 반영된다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Future<?>> rebuilds = new ArrayList<>();
+        for (String tenant : tenants.all()) {
+            // 인덱스를 먼저 등록해야 다시 만드는 동안의 커밋 이벤트가 버려지지 않고 대기열에 쌓인다.
+            indexes.computeIfAbsent(tenant, this::open);
+            rebuilds.add(updater.submit(() -> TenantContext.run(tenant, () -> rebuild(tenant))));
+        }
+        try {
+            for (Future<?> rebuild : rebuilds) {
+                rebuild.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("검색 인덱스 생성 실패", e.getCause());
+        }
+    }
+
+    /**
+     * 테넌트 인덱스를 DB 에서 다시 만든다. 인덱스 스레드에서 TenantContext 가 tenant 로 설정된 상태로 호출한다.
+     */
+    private void rebuild(String tenant) {
+        long start = System.nanoTime();
+        try {
+            TenantIndex index = indexes.computeIfAbsent(tenant, this::open);
+            index.writer.deleteAll();
+            index.teamNames.clear();
+            int members = readOnlyTransaction.execute(status -> load(index));
+            index.writer.commit();
+            index.searchers.maybeRefresh();
+            log.info("검색 인덱스 생성 tenant={}, members={}, {}ms", tenant, members, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 벌크 작업이 커밋된 뒤 해당 테넌트를 다시 만든다. 다른 변경과 순서가 섞이지 않도록 인덱스 스레드에서 한다.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(BulkChangedEvent event) {
+        String tenant = event.getTenant();
+        if (!indexes.containsKey(tenant)) {
+            return;
+        }
+        updater.execute(() -> TenantContext.run(tenant, () -> rebuild(tenant)));
+    }
+
+    /**
+     * 커밋 스레드에서 호출된다. 엔티티에서 값만 꺼내고 반영은 인덱스 스레드에서 한다.
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        TenantIndex index = indexes.get(event.getTenant());
+        if (index == null) {
+            return;
+        }
+        Object entity = event.getEntity();
+        boolean deleted = event.getType() == EntityChangedEvent.Type.DELETE;
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            long id = member.getId();
+            Document document = deleted ? null : memberDocument(id, member.getUsername(),
+                    member.getTeam() != null ? member.getTeam().getId() : 0);
+            updater.execute(() -> index.update(TYPE_MEMBER, id, document));
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            long id = team.getId();
+            String name = team.getName();
+            Document document = deleted ? null : teamDocument(id, name);
+            updater.execute(() -> {
+                if (deleted) {
+                    index.teamNames.remove(id);
+                } else if (name != null) {
+                    index.teamNames.put(id, name);
+                }
+                index.update(TYPE_TEAM, id, document);
+            });
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        updater.shutdown();
+        updater.awaitTermination(10, TimeUnit.SECONDS);
+        for (TenantIndex index : indexes.values()) {
+            try {
+                index.searchers.close();
+                index.writer.close();
+            } catch (IOException e) {
+                log.warn("검색 인덱스 닫기 실패", e);
+            }
+        }
+    }
+
+    private TenantIndex open(String tenant) {
+        try {
+            IndexWriterConfig config = new IndexWriterConfig(new GramAnalyzer())
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            IndexWriter writer = new IndexWriter(FSDirectory.open(indexDir.resolve(tenant)), config);
+            return new TenantIndex(writer, new SearcherManager(writer, null));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int load(TenantIndex index) {
+        int members = 0;
+        try {
+            try (Stream<Object[]> rows = em.createQuery("select t.id, t.name from Team t", Object[].class)
+                    .setHint(QueryHints.READ_ONLY, true)
+                    .getResultStream()) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    long id = (Long) row[0];
+                    String name = (String) row[1];
+                    if (name != null) {
+                        index.teamNames.put(id, name);
+                    }
+                    index.writer.addDocument(teamDocument(id, name));
+                }
+            }
+            try (Stream<Object[]> rows = em.createQuery(
+                            "select m.id, m.username, t.id from Member m left join m.team t", Object[].class)
+                    .setHint(QueryHints.FETCH_SIZE, LOAD_FETCH_SIZE)
+                    .setHint(QueryHints.READ_ONLY, true)
+                    .getResultStream()) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    index.writer.addDocument(memberDocument((Long) row[0], (String) row[1], row[2] != null ? (Long) row[2] : 0));
+                    members++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return members;
+    }
+
+    private static Document memberDocument(long id, String username, long teamId) {
+        Document document = new Document();
+        document.add(new StringField(TYPE, TYPE_MEMBER, Field.Store.NO));
+        document.add(new StringField(KEY, key(TYPE_MEMBER, id), Field.Store.NO));
+        document.add(new StoredField(ID, id));
+        document.add(new StringField(TEAM_ID, Long.toString(teamId), Field.Store.NO));
+        document.add(new StoredField(TEAM_ID, teamId));
+        addName(document, username);
+        return document;
+    }
+
+    private static Document teamDocument(long id, String name) {
+        Document document = new Document();
+        document.add(new StringField(TYPE, TYPE_TEAM, Field.Store.NO));
+        document.add(new StringField(KEY, key(TYPE_TEAM, id), Field.Store.NO));
+        document.add(new StoredField(ID, id));
+        addName(document, name);
+        return document;
+    }
+
+    private static void addName(Document document, String name) {
+        if (name == null) {
+            return;
+        }
+        // 검색용 keyword 는 소문자, 저장값은 원래 값
+        document.add(new StringField(NAME, name.toLowerCase(Locale.ROOT), Field.Store.NO));
+        document.add(new StoredField(NAME, name));
+        document.add(new TextField(NAME_GRAMS, name, Field.Store.NO));
+    }
+
+    private static String key(String type, long id) {
+        return type + ":" + id;
+    }
+
+    private static Query match(Mode mode, String value) {
+        switch (mode) {
+            case PREFIX:
+                return new PrefixQuery(new Term(NAME, value));
+            case FUZZY:
+                return new FuzzyQuery(new Term(NAME, value), Math.min(2, value.length() / 3));
+            default:
+                int[] codePoints = value.codePoints().toArray();
+                if (codePoints.length < GRAM) {
+                    return new WildcardQuery(new Term(NAME, "*" + escapeWildcard(value) + "*"));
+                }
+                PhraseQuery.Builder phrase = new PhraseQuery.Builder();
+                for (int i = 0; i + GRAM <= codePoints.length; i++) {
+                    phrase.add(new Term(NAME_GRAMS, new String(codePoints, i, GRAM)), i);
+                }
+                return phrase.build();
+        }
+    }
+
+    /**
+     * 입력값의 *, ?, 역슬래시는 와일드카드가 아니라 문자 그대로 찾는다.
+     */
+    private static String escapeWildcard(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR || c == WildcardQuery.WILDCARD_ESCAPE) {
+                escaped.append(WildcardQuery.WILDCARD_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static Query ofType(String type, Query query) {
+        return new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TYPE, type)), BooleanClause.Occur.FILTER)
+                .add(query, BooleanClause.Occur.MUST)
+                .build();
+    }
+
+    /**
+     * 이름이 일치하는 팀(최대 MAX_MATCHED_TEAMS 개)의 회원
+     */
+    private static Query membersOfTeams(IndexSearcher searcher, Query teamQuery) throws IOException {
+        ScoreDoc[] teams = searcher.search(teamQuery, MAX_MATCHED_TEAMS).scoreDocs;
+        if (teams.length == 0) {
+            return new BooleanQuery.Builder().build();
+        }
+        BooleanQuery.Builder teamIds = new BooleanQuery.Builder();
+        for (ScoreDoc team : teams) {
+            long teamId = searcher.doc(team.doc).getField(ID).numericValue().longValue();
+            teamIds.add(new TermQuery(new Term(TEAM_ID, Long.toString(teamId))), BooleanClause.Occur.SHOULD);
+        }
+        return ofType(TYPE_MEMBER, teamIds.build());
+    }
+
+    private static class TenantIndex {
+
+        private final IndexWriter writer;
+        private final SearcherManager searchers;
+        private final Map<Long, String> teamNames = new ConcurrentHashMap<>();
+
+        private TenantIndex(IndexWriter writer, SearcherManager searchers) {
+            this.writer = writer;
+            this.searchers = searchers;
+        }
+
+        private void update(String type, long id, Document document) {
+            try {
+                Term key = new Term(KEY, key(type, id));
+                if (document == null) {
+                    writer.deleteDocuments(key);
+                } else {
+                    writer.updateDocument(key, document);
+                }
+                searchers.maybeRefresh();
+            } catch (IOException e) {
+                log.warn("검색 인덱스 반영 실패 {}:{}", type, id, e);
+            }
+        }
+    }
+
+    /**
+     * 3-gram (소문자). CONTAINS 검색용 필드에만 쓰이고 나머지 필드는 분석하지 않는다. (StringField)
+     */
+    private static class GramAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new NGramTokenizer(GRAM, GRAM);
+            return new TokenStreamComponents(tokenizer, new LowerCaseFilter(tokenizer));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.tenant.TenantContext;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드에서 들어온 회원 저장을 모아서 한 트랜잭션으로 저장한다. (micro-batching)
+ * max-batch-size 건이 모이거나 첫 요청 후 max-wait 가 지나면 저장하고, 커밋이 끝난 뒤 각 호출자에게 생성된 id 를 돌려준다.
+ * insert 는 hibernate.jdbc.batch_size 단위로 JDBC batch 로 나간다.
+ * 배치 트랜잭션이 실패하면 한 건씩 다시 저장해서 실패한 건만 호출자에게 예외로 돌려준다.
+ */
+@Slf4j
+@Service
+public class MemberBatchWriter {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingSave> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public MemberBatchWriter(PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.member-writer.max-batch-size:50}") int maxBatchSize,
+                             @Value("${app.member-writer.max-wait:5ms}") Duration maxWait,
+                             @Value("${app.member-writer.queue-capacity:10000}") int queueCapacity) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.batchSizes = DistributionSummary.builder("member.batch.writer.batch.size")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "member-batch-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // 진행 중인 JDBC 호출을 끊지 않도록 interrupt 하지 않고 poll 타임아웃으로 빠져나오게 한다.
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        if (!worker.isAlive()) {
+            // 워커가 끝난 뒤에도 대기열에 남은 요청이 있으면 완료되지 않으므로 실패시킨다.
+            List<PendingSave> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            fail(remaining, stopped());
+        }
+    }
+
+    /**
+     * 저장을 요청한다. 현재 스레드의 테넌트 스키마에 저장되며, 커밋 후 생성된 id 로 완료된다.
+     */
+    public CompletableFuture<Long> save(Member member) {
+        PendingSave pending = new PendingSave(member, TenantContext.get());
+        if (!running) {
+            return CompletableFuture.failedFuture(stopped());
+        }
+        if (!queue.offer(pending)) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("회원 저장 대기열이 가득 찼습니다."));
+        }
+        // offer 직전에 stop() 되어 워커가 이미 대기열을 비웠을 수 있다.
+        // 여기서 꺼내지면 아무도 처리하지 않으므로 실패시키고, 못 꺼내면 워커가 가져간 것이다.
+        if (!running && queue.remove(pending)) {
+            pending.future.completeExceptionally(stopped());
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        List<PendingSave> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingSave first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingSave next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            writeSafely(batch);
+        }
+
+        // 종료 전에 남은 요청을 모두 저장
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            writeSafely(batch);
+        }
+    }
+
+    /**
+     * Error 가 나도 워커 스레드가 죽지 않도록 모두 잡고, 아직 완료되지 않은 요청은 실패시킨다.
+     */
+    private void writeSafely(List<PendingSave> batch) {
+        try {
+            write(batch);
+        } catch (Throwable e) {
+            log.error("회원 일괄 저장 중 예외, size={}", batch.size(), e);
+            fail(batch, e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private static void fail(List<PendingSave> saves, Throwable cause) {
+        for (PendingSave pending : saves) {
+            pending.future.completeExceptionally(cause);
+        }
+    }
+
+    private static RejectedExecutionException stopped() {
+        return new RejectedExecutionException("회원 저장기가 종료되었습니다.");
+    }
+
+    private void write(List<PendingSave> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.record(batch.size());
+
+        Map<String, List<PendingSave>> byTenant = new LinkedHashMap<>();
+        for (PendingSave pending : batch) {
+            byTenant.computeIfAbsent(pending.tenant, t -> new ArrayList<>()).add(pending);
+        }
+        byTenant.forEach((tenant, saves) -> TenantContext.run(tenant, () -> write(tenant, saves)));
+    }
+
+    private void write(String tenant, List<PendingSave> saves) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingSave pending : saves) {
+                    em.persist(pending.member);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("회원 일괄 저장 실패, 한 건씩 다시 저장합니다. tenant={}, size={}", tenant, saves.size(), e);
+            saves.forEach(this::writeOne);
+            return;
+        }
+        for (PendingSave pending : saves) {
+            pending.future.complete(pending.member.getId());
+        }
+    }
+
+    private void writeOne(PendingSave pending) {
+        // 롤백된 persist 에서 할당된 id 는 버린다.
+        pending.member.setId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> em.persist(pending.member));
+            pending.future.complete(pending.member.getId());
+        } catch (RuntimeException e) {
+            pending.member.setId(null);
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private static class PendingSave {
+
+        private final Member member;
+        private final String tenant;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private PendingSave(Member member, String tenant) {
+            this.member = member;
+            this.tenant = tenant;
+        }
+    }
+}
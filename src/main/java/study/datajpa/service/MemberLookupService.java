@@ -0,0 +1,72 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import study.datajpa.cache.SingleFlight;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.tenant.TenantContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 동시에 들어온 같은 회원 조회를 쿼리 한 번으로 합친다.
+ * 여러 스레드가 결과를 같이 쓰므로 엔티티가 아닌 DTO 를 반환한다.
+ * 합쳐진 호출은 먼저 시작된 조회 결과를 받으므로, 캐시할 때는 호출 전에 읽은 버전이 아니라 결과에 담긴 버전을 쓴다.
+ */
+@Service
+public class MemberLookupService {
+
+    private final MemberRepository memberRepository;
+    private final SingleFlight<String, Optional<VersionedMember>> byId;
+    private final SingleFlight<String, List<VersionedMember>> byUsername;
+
+    public MemberLookupService(MemberRepository memberRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.single-flight.stripes:16}") int stripes) {
+        this.memberRepository = memberRepository;
+        this.byId = new SingleFlight<>("member.byId", stripes, meterRegistry);
+        this.byUsername = new SingleFlight<>("member.byUsername", stripes, meterRegistry);
+    }
+
+    public Optional<VersionedMember> findById(Long id) {
+        return byId.execute(TenantContext.get() + ":" + id,
+                () -> memberRepository.findById(id)
+                        .map(VersionedMember::new));
+    }
+
+    /**
+     * id 조회와 키 공간이 다르므로 따로 합친다. 회원마다 읽은 시점의 버전을 같이 돌려준다.
+     */
+    public List<VersionedMember> findByUsername(String username) {
+        return byUsername.execute(TenantContext.get() + ":" + username,
+                () -> memberRepository.findByUsername(username).stream()
+                        .map(VersionedMember::new)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * 조회한 회원과 그 시점의 버전(lastModifiedDate)
+     */
+    @Getter
+    public static class VersionedMember {
+
+        private final MemberDto member;
+        private final LocalDateTime version;
+
+        public VersionedMember(MemberDto member, LocalDateTime version) {
+            this.member = member;
+            this.version = version;
+        }
+
+        private VersionedMember(Member member) {
+            this(new MemberDto(member), member.getLastModifiedDate());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.tenant;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 커넥션 풀은 하나를 같이 쓰고, 커넥션을 꺼낼 때 테넌트 스키마로 전환한다.
+ */
+@RequiredArgsConstructor
+public class SchemaPerTenantConnectionProvider implements MultiTenantConnectionProvider {
+
+    private final DataSource dataSource;
+
+    @Override
+    public Connection getAnyConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void releaseAnyConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        Connection connection = getAnyConnection();
+        try {
+            connection.setSchema(tenantIdentifier);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    @Override
+    public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        try {
+            // 풀에 돌려주기 전에 기본 스키마로 복구
+            connection.setSchema(TenantContext.DEFAULT_TENANT);
+        } finally {
+            releaseAnyConnection(connection);
+        }
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isInstance(this) || DataSource.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return (T) this;
+        }
+        if (DataSource.class.isAssignableFrom(unwrapType)) {
+            return (T) dataSource;
+        }
+        throw new IllegalArgumentException("Unknown unwrap type: " + unwrapType);
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.tenant;
+
+import org.hibernate.MultiTenancyStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 테넌트별 스키마 분리 (Hibernate multi-tenancy SCHEMA 전략)
+ * 2차 캐시를 켜더라도 Hibernate 캐시 키에 테넌트 식별자가 포함되므로 테넌트 간에 섞이지 않는다.
+ */
+@Configuration
+public class TenantConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer multiTenancyCustomizer(DataSource dataSource) {
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT, MultiTenancyStrategy.SCHEMA);
+            properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, new SchemaPerTenantConnectionProvider(dataSource));
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new TenantIdentifierResolver());
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package study.datajpa.tenant;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 테넌트. 테넌트마다 DB 스키마가 따로 있고, 지정하지 않으면 기본 스키마(PUBLIC)를 사용한다.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "PUBLIC";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String get() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    public static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static void run(String tenant, Runnable task) {
+        call(tenant, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T call(String tenant, Supplier<T> task) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
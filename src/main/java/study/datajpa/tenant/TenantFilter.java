@@ -0,0 +1,48 @@
+package study.datajpa.tenant;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * X-Tenant-ID 헤더로 요청의 테넌트를 정한다. 헤더가 없으면 기본 테넌트
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+
+    private final Tenants tenants;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String tenant = request.getHeader(TENANT_HEADER);
+        if (tenant == null || tenant.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!tenants.contains(tenant)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "unknown tenant: " + tenant);
+            return;
+        }
+
+        TenantContext.set(Tenants.normalize(tenant));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
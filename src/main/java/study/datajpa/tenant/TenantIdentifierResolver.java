@@ -0,0 +1,16 @@
+package study.datajpa.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.get();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.tenant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 설정된 테넌트 목록 (app.tenants). 기본 테넌트(PUBLIC)는 항상 포함된다.
+ * 테넌트 이름은 스키마 이름으로 그대로 쓰이므로 대문자로 맞춘다.
+ */
+@Component
+public class Tenants {
+
+    private final List<String> tenants;
+
+    public Tenants(@Value("${app.tenants:}") String[] tenants) {
+        List<String> list = new ArrayList<>();
+        list.add(TenantContext.DEFAULT_TENANT);
+        for (String tenant : tenants) {
+            String normalized = normalize(tenant);
+            if (!normalized.isEmpty() && !list.contains(normalized)) {
+                list.add(normalized);
+            }
+        }
+        this.tenants = Collections.unmodifiableList(list);
+    }
+
+    public List<String> all() {
+        return tenants;
+    }
+
+    public boolean contains(String tenant) {
+        return tenant != null && tenants.contains(normalize(tenant));
+    }
+
+    /**
+     * 모든 테넌트에 대해 TenantContext 를 바꿔가며 실행한다. (배치 작업용)
+     */
+    public void forEach(Consumer<String> task) {
+        for (String tenant : tenants) {
+            TenantContext.run(tenant, () -> task.accept(tenant));
+        }
+    }
+
+    public static String normalize(String tenant) {
+        return tenant.trim().toUpperCase(Locale.ROOT);
+    }
+}
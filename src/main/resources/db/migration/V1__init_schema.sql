@@ -0,0 +1,28 @@
+create sequence hibernate_sequence start with 1 increment by 1;
+
+create table team (
+    team_id      bigint not null,
+    created_date timestamp,
+    updated_date timestamp,
+    name         varchar(255),
+    primary key (team_id)
+);
+
+create table member (
+    member_id          bigint  not null,
+    created_date       timestamp,
+    last_modified_date timestamp,
+    created_by         varchar(255),
+    last_modified_by   varchar(255),
+    username           varchar(255),
+    age                integer not null,
+    team_id            bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (team_id)
+);
+
+create table item (
+    id           varchar(255) not null,
+    created_date timestamp,
+    primary key (id)
+);
@@ -0,0 +1,12 @@
+-- MemberRepository 조회 조건용 인덱스
+-- H2 는 온라인 인덱스 생성을 지원하지 않는다. 운영 DB(PostgreSQL)에서는 create index concurrently 로 만들고
+-- 해당 마이그레이션은 트랜잭션 밖에서 실행해야 한다. (spring.flyway.mixed: true)
+
+-- findByUsername, findListByUsername, findByNames, findUser ...
+create index idx_member_username on member (username);
+
+-- findByAge(age, pageable) order by username
+create index idx_member_age_username on member (age, username);
+
+-- join m.team, 팀별 회원 조회
+create index idx_member_team_id on member (team_id);
@@ -0,0 +1,3 @@
+-- Member, Team id 는 pooled-lo 옵티마이저로 시퀀스 한 번에 50개씩 할당한다. (PooledLoSequenceGenerator)
+-- 이미 발급된 id 와 겹치지 않도록 기존 시퀀스를 그대로 이어서 사용
+alter sequence hibernate_sequence increment by 50;
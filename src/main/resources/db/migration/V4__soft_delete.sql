@@ -0,0 +1,8 @@
+-- 삭제는 deleted_at 만 기록하고(@SQLDelete), 실제 삭제는 SoftDeletePurgeJob 이 나눠서 처리한다.
+alter table member add column deleted_at timestamp;
+alter table team add column deleted_at timestamp;
+
+-- 조회는 항상 deleted_at is null 조건이 붙는다. PostgreSQL 이라면 where deleted_at is null 부분 인덱스로 대체 가능
+-- 아래 인덱스는 purge 대상(deleted_at < ?) 검색용
+create index idx_member_deleted_at on member (deleted_at);
+create index idx_team_deleted_at on team (deleted_at);
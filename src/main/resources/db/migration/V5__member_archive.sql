@@ -0,0 +1,19 @@
+-- 오래 수정되지 않은 회원은 MemberArchiveJob 이 member_archive 로 옮긴다.
+create table member_archive (
+    member_id          bigint  not null,
+    created_date       timestamp,
+    last_modified_date timestamp,
+    created_by         varchar(255),
+    last_modified_by   varchar(255),
+    username           varchar(255),
+    age                integer not null,
+    team_id            bigint,
+    archived_at        timestamp not null,
+    primary key (member_id)
+);
+
+create index idx_member_archive_username on member_archive (username);
+create index idx_member_archive_age on member_archive (age);
+
+-- 아카이브 대상 검색 (last_modified_date < ?)
+create index idx_member_last_modified on member (last_modified_date, member_id);
@@ -0,0 +1,2 @@
+-- SoftDeletePurgeJob: 보관된 회원이 참조하는 팀은 영구 삭제하지 않는다. (not exists 조회용)
+create index idx_member_archive_team_id on member_archive (team_id);
@@ -0,0 +1,41 @@
+package study.datajpa;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * 기본 설정과 fast-startup 프로파일의 기동 ~ 첫 요청 응답 시간 비교
+ * ./gradlew benchmark --tests '*StartupBenchmarkTest'
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    @Test
+    void timeToFirstRequest() {
+        // 클래스 로딩 등 JVM 워밍업 효과를 줄이기 위해 한 번씩 먼저 띄운다.
+        measure();
+        measure("fast-startup");
+
+        System.out.println("default      = " + measure() + "ms");
+        System.out.println("fast-startup = " + measure("fast-startup") + "ms");
+    }
+
+    private long measure(String... profiles) {
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .profiles(profiles)
+                .properties("server.port=0")
+                .run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            new RestTemplate().getForObject("http://localhost:" + port + "/members?size=1", String.class);
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            context.close();
+        }
+    }
+}
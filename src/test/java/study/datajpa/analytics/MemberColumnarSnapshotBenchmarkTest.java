@@ -0,0 +1,109 @@
+package study.datajpa.analytics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * 팀별 나이 통계: JPQL group by vs 엔티티 순회 vs 컬럼 스냅샷
+ * ./gradlew benchmark --tests '*MemberColumnarSnapshotBenchmarkTest' -Dbenchmark.members=2000000
+ */
+@Tag("benchmark")
+@SpringBootTest
+class MemberColumnarSnapshotBenchmarkTest {
+
+    private static final long ID_BASE = 1_000_000_000L;
+    private static final int BATCH_SIZE = 1000;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberColumnarExporter memberColumnarExporter;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from member where member_id >= ?", ID_BASE);
+        jdbcTemplate.update("delete from team where team_id >= ?", ID_BASE);
+    }
+
+    @Test
+    void ageStatisticsByTeam() throws Exception {
+        int count = Integer.getInteger("benchmark.members", 500_000);
+        int teams = Integer.getInteger("benchmark.teams", 100);
+        insert(count, teams);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        run("jpql group by    ", () -> readOnly.execute(status -> em.createQuery(
+                        "select t.id, count(m), avg(m.age) from Member m join m.team t group by t.id", Object[].class)
+                .getResultList().size()));
+
+        run("entity iteration ", () -> readOnly.execute(status -> {
+            Map<Long, IntSummaryStatistics> result = new HashMap<>();
+            for (Member member : em.createQuery("select m from Member m join fetch m.team", Member.class).getResultList()) {
+                result.computeIfAbsent(member.getTeam().getId(), t -> new IntSummaryStatistics()).accept(member.getAge());
+            }
+            return result.size();
+        }));
+
+        long start = System.nanoTime();
+        try (MemberColumnarSnapshot snapshot = memberColumnarExporter.export(dir.resolve("members.snapshot"))) {
+            System.out.println("snapshot export   : " + (System.nanoTime() - start) / 1_000_000 + "ms");
+            run("snapshot          ", () -> snapshot.query().ageStatisticsByTeam().size());
+        }
+    }
+
+    private void insert(int count, int teams) {
+        List<Object[]> teamRows = new ArrayList<>();
+        for (int i = 0; i < teams; i++) {
+            teamRows.add(new Object[]{ID_BASE + i, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teamRows);
+
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Object[]{ID_BASE + i, "member" + i, random.nextInt(80), ID_BASE + random.nextInt(teams)});
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static void run(String name, Supplier<Integer> task) {
+        task.get(); // warm up
+        long start = System.nanoTime();
+        int groups = task.get();
+        System.out.println(name + ": " + (System.nanoTime() - start) / 1_000_000 + "ms (" + groups + " teams)");
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.nio.file.Path;
+import java.util.IntSummaryStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberColumnarSnapshotTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberColumnarExporter memberColumnarExporter;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void exportAndQuery() throws Exception {
+        // given
+        Team teamA = new Team("snapshotA");
+        Team teamB = new Team("snapshotB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("snapshot1", 10, teamA));
+        em.persist(new Member("snapshot2", 25, teamA));
+        em.persist(new Member("snapshot3", 30, teamB));
+        em.persist(new Member("other", 30, teamB));
+        em.flush();
+        em.clear();
+
+        // when
+        try (MemberColumnarSnapshot snapshot = memberColumnarExporter.export(dir.resolve("members.snapshot"))) {
+
+            // then
+            assertThat(snapshot.query().team(teamA.getId()).count()).isEqualTo(2);
+            assertThat(snapshot.query().team(teamB.getId()).usernameStartsWith("snapshot").count()).isEqualTo(1);
+            assertThat(snapshot.query().usernameStartsWith("snapshot").ageBetween(20, 30).count()).isEqualTo(2);
+
+            IntSummaryStatistics teamAStatistics = snapshot.query().usernameStartsWith("snapshot")
+                    .ageStatisticsByTeam().get(teamA.getId());
+            assertThat(teamAStatistics.getAverage()).isEqualTo(17.5);
+
+            long[] histogram = snapshot.query().team(teamB.getId()).ageHistogramByTeam(10, 10).get(teamB.getId());
+            assertThat(histogram[3]).isEqualTo(2);
+
+            long[] ids = snapshot.query().team(teamA.getId()).ids();
+            assertThat(ids).hasSize(2);
+            int row = 0;
+            while (snapshot.id(row) != ids[0]) {
+                row++;
+            }
+            assertThat(snapshot.username(row)).isEqualTo("snapshot1");
+            assertThat(snapshot.age(row)).isEqualTo(10);
+        }
+    }
+}
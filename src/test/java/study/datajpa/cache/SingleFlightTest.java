@@ -0,0 +1,95 @@
+package study.datajpa.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 4, new SimpleMeterRegistry());
+
+    @Test
+    void collapseConcurrentCalls() throws Exception {
+        int callers = 10;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "value";
+            })));
+        }
+
+        // 나머지 호출이 모두 대기할 때까지 leader 를 붙잡아 둔다.
+        while (singleFlight.collapsedCount() < callers - 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get()).isEqualTo("value");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        executor.shutdown();
+
+        // 끝난 뒤에는 다시 조회
+        singleFlight.execute("key", () -> "next");
+        assertThat(singleFlight.executionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void propagateFailure() throws Exception {
+        int callers = 5;
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("fail");
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                throw failure;
+            })));
+        }
+
+        while (singleFlight.collapsedCount() < callers - 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // leader 뿐 아니라 대기하던 호출도 같은 예외를 받는다.
+        for (Future<String> result : results) {
+            assertThatThrownBy(result::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(failure);
+        }
+        assertThat(singleFlight.executionCount()).isEqualTo(1);
+        executor.shutdown();
+
+        assertThat(singleFlight.execute("key", () -> "value")).isEqualTo("value");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
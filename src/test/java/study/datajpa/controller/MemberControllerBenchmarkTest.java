@@ -0,0 +1,74 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 회원 id 목록 조회: /members/{id} 반복 호출 vs /members/batch
+ * ./gradlew benchmark -Dbenchmark.members=5000
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerBenchmarkTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    List<Long> ids = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(ids);
+    }
+
+    @Test
+    void perIdVersusBatch() throws Exception {
+        int count = Integer.getInteger("benchmark.members", 2000);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("bench" + i, i % 100));
+        }
+        memberRepository.saveAll(members).forEach(m -> ids.add(m.getId()));
+
+        // warm up
+        mockMvc.perform(get("/members/" + ids.get(0))).andExpect(status().isOk());
+        mockMvc.perform(get("/members/batch").param("ids", ids.get(0).toString())).andExpect(status().isOk());
+
+        long start = System.nanoTime();
+        for (Long id : ids) {
+            mockMvc.perform(get("/members/" + id)).andExpect(status().isOk());
+        }
+        long perIdMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        for (int from = 0; from < ids.size(); from += 5000) {
+            String param = ids.subList(from, Math.min(from + 5000, ids.size())).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","));
+            mockMvc.perform(get("/members/batch").param("ids", param)).andExpect(status().isOk());
+        }
+        long batchMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("members = " + count);
+        System.out.println("per id  = " + perIdMillis + "ms");
+        System.out.println("batch   = " + batchMillis + "ms");
+    }
+}
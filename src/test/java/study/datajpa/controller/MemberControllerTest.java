@@ -0,0 +1,173 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.tenant.TenantContext;
+import study.datajpa.tenant.TenantFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 스트리밍 응답은 별도 스레드에서 커밋된 데이터를 읽으므로 테스트 트랜잭션을 쓰지 않는다.
+// 스트리밍은 다른 테스트의 데이터가 섞이지 않도록 기동할 때 새로 만든 테넌트 스키마에서 읽는다.
+// batch 조회는 chunk 를 나누는 경우, 스트리밍은 최대 건수를 넘는 경우를 보기 위해 작은 값으로 설정
+@SpringBootTest(properties = {"app.tenants=controller", "app.member-batch.chunk-size=2", "app.member-batch.max-ids=5",
+        "app.member-stream.max-limit=3"})
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    private static final String TENANT = "CONTROLLER";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    List<Long> ids = new ArrayList<>();
+    List<Long> tenantIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(ids);
+        TenantContext.run(TENANT, () -> memberRepository.deleteAllByIdInBatch(tenantIds));
+    }
+
+    @Test
+    void streamJsonAndCbor() throws Exception {
+        // given
+        saveInTenant("stream1", "stream2");
+
+        // Accept 가 없거나 JSON 을 우선하면 JSON
+        assertThat(usernames(objectMapper, stream(null, MediaType.APPLICATION_JSON)))
+                .contains("stream1", "stream2");
+        assertThat(usernames(objectMapper, stream("application/json, application/cbor;q=0.5", MediaType.APPLICATION_JSON)))
+                .contains("stream1", "stream2");
+
+        // 파라미터가 붙은 CBOR 도 CBOR
+        CBORMapper cborMapper = new CBORMapper();
+        assertThat(usernames(cborMapper, stream("application/cbor;q=0.9", MediaType.APPLICATION_CBOR)))
+                .contains("stream1", "stream2");
+        assertThat(usernames(cborMapper, stream("application/json;q=0.5, application/cbor", MediaType.APPLICATION_CBOR)))
+                .contains("stream1", "stream2");
+    }
+
+    @Test
+    void streamIsCappedAtMaxLimit() throws Exception {
+        // given
+        saveInTenant("limit1", "limit2", "limit3", "limit4");
+
+        // when & then
+        // limit 이 없거나 최대값(3)보다 크면 3건까지만
+        assertThat(usernames(objectMapper, stream(null, MediaType.APPLICATION_JSON))).hasSize(3);
+        assertThat(usernames(objectMapper, stream(null, 10, MediaType.APPLICATION_JSON))).hasSize(3);
+        assertThat(usernames(objectMapper, stream(null, 2, MediaType.APPLICATION_JSON)))
+                .containsExactly("limit1", "limit2");
+    }
+
+    @Test
+    void streamWithMalformedAccept() throws Exception {
+        // 형식이 잘못된 Accept 는 서버 오류(500)가 아니다.
+        mockMvc.perform(get("/members/stream").header(HttpHeaders.ACCEPT, "application/json;q=abc, /cbor")
+                        .header(TenantFilter.TENANT_HEADER, TENANT))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void batchKeepsRequestOrder() throws Exception {
+        // given
+        Long id1 = memberRepository.save(new Member("batch1", 10)).getId();
+        Long id2 = memberRepository.save(new Member("batch2", 20)).getId();
+        Long id3 = memberRepository.save(new Member("batch3", 30)).getId();
+        ids.addAll(List.of(id1, id2, id3));
+
+        // when & then
+        // 요청 순서대로, chunk(2개)를 넘어도 순서 유지
+        mockMvc.perform(get("/members/batch").param("ids", id3 + "," + id1 + "," + id2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].username").value(List.of("batch3", "batch1", "batch2")));
+    }
+
+    @Test
+    void batchSkipsUnknownAndDuplicateIds() throws Exception {
+        // given
+        Long id1 = memberRepository.save(new Member("batch4", 10)).getId();
+        Long id2 = memberRepository.save(new Member("batch5", 20)).getId();
+        ids.addAll(List.of(id1, id2));
+
+        // when & then
+        // 중복 id 는 한 번만, 없는 id 는 제외
+        mockMvc.perform(get("/members/batch").param("ids", id2 + "," + id1 + "," + id2 + ",-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].username").value(List.of("batch5", "batch4")));
+    }
+
+    @Test
+    void batchRejectsTooManyIds() throws Exception {
+        mockMvc.perform(get("/members/batch").param("ids", "1,2,3,4,5,6"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/batch").param("ids", "1,2,3,4,5"))
+                .andExpect(status().isOk());
+    }
+
+    private void saveInTenant(String... usernames) {
+        TenantContext.run(TENANT, () -> {
+            for (String username : usernames) {
+                tenantIds.add(memberRepository.save(new Member(username, 10)).getId());
+            }
+        });
+    }
+
+    private byte[] stream(String accept, MediaType expected) throws Exception {
+        return stream(accept, 0, expected);
+    }
+
+    private byte[] stream(String accept, int limit, MediaType expected) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/members/stream").header(TenantFilter.TENANT_HEADER, TENANT);
+        if (accept != null) {
+            builder.header(HttpHeaders.ACCEPT, accept);
+        }
+        if (limit > 0) {
+            builder.param("limit", String.valueOf(limit));
+        }
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(expected));
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    private static List<String> usernames(ObjectMapper mapper, byte[] body) throws Exception {
+        JsonNode members = mapper.readTree(body);
+        assertThat(members.isArray()).isTrue();
+        List<String> usernames = new ArrayList<>();
+        members.forEach(member -> usernames.add(member.get("username").asText()));
+        return usernames;
+    }
+}
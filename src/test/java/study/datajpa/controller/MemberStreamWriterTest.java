@@ -0,0 +1,54 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.tenant.TenantContext;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.tenants=stream")
+class MemberStreamWriterTest {
+
+    @Autowired
+    MemberStreamWriter memberStreamWriter;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    void streamKeepsRequestTenant() throws Exception {
+        // given
+        Member publicMember = memberRepository.save(new Member("stream-public", 10));
+        Member tenantMember = TenantContext.call("STREAM", () -> memberRepository.save(new Member("stream-tenant", 10)));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // when
+            // 요청 스레드에서 본문을 만들고, 출력은 테넌트가 없는 다른 스레드에서 한다. (비동기 디스패치와 같은 상황)
+            StreamingResponseBody body = TenantContext.call("STREAM", () -> memberStreamWriter.json(0));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            executor.submit(() -> {
+                body.writeTo(out);
+                return null;
+            }).get();
+
+            // then
+            String json = out.toString(StandardCharsets.UTF_8);
+            assertThat(json).contains("stream-tenant");
+            assertThat(json).doesNotContain("stream-public");
+        } finally {
+            executor.shutdownNow();
+            memberRepository.deleteById(publicMember.getId());
+            TenantContext.run("STREAM", () -> memberRepository.deleteById(tenantMember.getId()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package study.datajpa.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemKeyTest {
+
+    @Test
+    void timeOrdered() {
+        ItemKey itemKey = new ItemKey(1);
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            keys.add(itemKey.nextKey());
+        }
+
+        // 생성 순서 == 문자열 정렬 순서, 중복 없음, 고정 길이
+        assertThat(keys).isSorted().doesNotHaveDuplicates();
+        assertThat(keys).allMatch(key -> key.length() == ItemKey.LENGTH);
+    }
+
+    @Test
+    void encodeDecode() {
+        long value = new ItemKey(7).nextLong();
+
+        assertThat(ItemKey.decode(ItemKey.encode(value))).isEqualTo(value);
+        assertThatThrownBy(() -> ItemKey.decode("A")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,68 @@
+package study.datajpa.entity;
+
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * 관리 중인 Member 10만 건의 flush 시간과 힙 사용량
+ * ./gradlew benchmark --tests '*MemberFlushBenchmarkTest'            (바이트코드 향상)
+ * ./gradlew benchmark --tests '*MemberFlushBenchmarkTest' -PnoEnhance (스냅샷 비교)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class MemberFlushBenchmarkTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    void flushManagedMembers() {
+        int count = Integer.getInteger("benchmark.members", 100_000);
+        for (int i = 0; i < count; i++) {
+            em.persist(new Member("flush" + i, i % 100));
+            if (i % 1000 == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+
+        long heapBefore = usedHeap();
+        List<Member> members = em.createQuery("select m from Member m where m.username like 'flush%'", Member.class)
+                .getResultList();
+        long heapAfter = usedHeap();
+
+        // 1% 만 변경
+        for (int i = 0; i < members.size(); i += 100) {
+            members.get(i).setAge(members.get(i).getAge() + 1);
+        }
+
+        long start = System.nanoTime();
+        em.flush();
+        long flushMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("enhanced      = " + (ManagedEntity.class.isAssignableFrom(Member.class)
+                && SelfDirtinessTracker.class.isAssignableFrom(Member.class)));
+        System.out.println("managed       = " + members.size());
+        System.out.println("heap          = " + (heapAfter - heapBefore) / 1024 / 1024 + "MB");
+        System.out.println("flush         = " + flushMillis + "ms");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -1,5 +1,6 @@
 package study.datajpa.entity;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -45,4 +46,21 @@ class MemberTest {
         System.out.println("findMember.getLastModifiedBy = " + findMember.getLastModifiedBy());
     }
 
+    @Test
+    void changeTeamDoesNotLoadMembers() {
+        // given
+        Team team = new Team("changeTeam");
+        em.persist(team);
+        em.persist(new Member("changeTeam1", 10, team));
+        em.flush();
+        em.clear();
+
+        // when
+        Team findTeam = em.find(Team.class, team.getId());
+        Member member = new Member("changeTeam2", 20, findTeam);
+
+        // then
+        assertSame(findTeam, member.getTeam());
+        assertFalse(Hibernate.isInitialized(findTeam.getMembers()));
+    }
 }
\ No newline at end of file
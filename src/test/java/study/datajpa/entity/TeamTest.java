@@ -1,5 +1,6 @@
 package study.datajpa.entity;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,6 +10,8 @@ import javax.persistence.PersistenceContext;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 @SpringBootTest
 @Transactional
 class TeamTest {
@@ -48,5 +51,30 @@ class TeamTest {
 
     }
 
+    @Test
+    void deleteTeamWithMembers() {
+        // given
+        Team team = new Team("deleteTeam");
+        em.persist(team);
+        Member member = new Member("deleteTeam1", 10, team);
+        em.persist(member);
+        em.flush();
+        em.clear();
 
+        // when
+        Team findTeam = em.find(Team.class, team.getId());
+        em.remove(findTeam);
+        em.flush();
+
+        // 회원을 하나씩 읽어서 고치지 않고 update 한 번으로 비운다.
+        assertFalse(Hibernate.isInitialized(findTeam.getMembers()));
+        em.clear();
+
+        // then
+        // 회원은 남고 지워진 팀을 가리키지 않는다.
+        assertNull(em.find(Team.class, team.getId()));
+        Member findMember = em.find(Member.class, member.getId());
+        assertNotNull(findMember);
+        assertNull(findMember.getTeam());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package study.datajpa.job;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.archive.enabled=true")
+@Transactional
+class MemberArchiveJobTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberArchiveJob memberArchiveJob;
+
+    @Test
+    void archive() {
+        // given
+        Member oldMember = memberRepository.save(new Member("archive1", 30));
+        Member newMember = memberRepository.save(new Member("archive1", 31));
+        em.flush();
+        em.createNativeQuery("update member set last_modified_date = :date where member_id = :id")
+                .setParameter("date", LocalDateTime.now().minusYears(1))
+                .setParameter("id", oldMember.getId())
+                .executeUpdate();
+        em.clear();
+
+        // when
+        int archived = memberArchiveJob.archive(LocalDateTime.now().minusMonths(6));
+
+        // then
+        assertThat(archived).isEqualTo(1);
+        assertThat(memberRepository.findByUsername("archive1")).extracting("id").containsExactly(newMember.getId());
+
+        List<MemberDto> allTiers = memberRepository.findByUsernameIncludingArchive("archive1");
+        assertThat(allTiers).extracting("id").containsExactlyInAnyOrder(oldMember.getId(), newMember.getId());
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.job;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 작업이 트랜잭션을 직접 나눠서 커밋하므로 테스트 트랜잭션을 쓰지 않는다.
+@SpringBootTest(properties = "app.archive.enabled=true")
+class SoftDeletePurgeJobTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SoftDeletePurgeJob softDeletePurgeJob;
+
+    @Autowired
+    MemberArchiveJob memberArchiveJob;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    List<Long> archivedMemberIds = new ArrayList<>();
+    List<Long> teamIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : archivedMemberIds) {
+            jdbcTemplate.update("delete from member_archive where member_id = ?", id);
+        }
+        teamRepository.deleteAllByIdInBatch(teamIds);
+    }
+
+    @Test
+    void keepTeamReferencedByArchivedMember() {
+        // given
+        Team archivedTeam = teamRepository.save(new Team("purgeArchivedTeam"));
+        Team emptyTeam = teamRepository.save(new Team("purgeEmptyTeam"));
+        teamIds.add(archivedTeam.getId());
+        teamIds.add(emptyTeam.getId());
+
+        Member member = memberRepository.save(new Member("purgeArchived", 20, archivedTeam));
+        archivedMemberIds.add(member.getId());
+        jdbcTemplate.update("update member set last_modified_date = ? where member_id = ?",
+                LocalDateTime.now().minusYears(10), member.getId());
+        memberArchiveJob.archive(LocalDateTime.now().minusYears(9));
+
+        // 보관 기간(7일)이 지난 soft delete
+        jdbcTemplate.update("update team set deleted_at = ? where team_id in (?, ?)",
+                LocalDateTime.now().minusDays(30), archivedTeam.getId(), emptyTeam.getId());
+
+        // when
+        softDeletePurgeJob.purge();
+
+        // then
+        // 보관된 회원이 참조하는 팀은 남아서 보관 회원 조회에 팀 이름이 나온다.
+        assertThat(teamRows(archivedTeam.getId())).isEqualTo(1);
+        assertThat(teamRows(emptyTeam.getId())).isZero();
+        assertThat(memberRepository.findByUsernameIncludingArchive("purgeArchived"))
+                .extracting("teamName").containsExactly("purgeArchivedTeam");
+    }
+
+    private int teamRows(Long teamId) {
+        return jdbcTemplate.queryForObject("select count(*) from team where team_id = ?", Integer.class, teamId);
+    }
+}
@@ -0,0 +1,95 @@
+package study.datajpa.perf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 기준 결과 (perf-baseline.properties) 와 비교한다.
+ * 키는 시나리오.throughput / 시나리오.p95.micros / 시나리오.alloc.bytes 이고, 기준값이 없는 항목은 missing() 으로 따로 알린다.
+ * threshold 0.2 면 처리량 20% 감소, p95 지연 20% 증가, 할당량 20% 증가부터 회귀로 본다.
+ */
+public class PerfBaseline {
+
+    private static final List<String> METRICS = List.of(".throughput", ".p95.micros", ".alloc.bytes");
+
+    private final Properties baseline = new Properties();
+    private final double threshold;
+
+    public PerfBaseline(Path file, double threshold) throws IOException {
+        this.threshold = threshold;
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                baseline.load(reader);
+            }
+        }
+    }
+
+    public List<String> regressions(List<PerfScenario> results) {
+        List<String> regressions = new ArrayList<>();
+        for (PerfScenario result : results) {
+            String name = result.getName();
+            Double throughput = value(name + ".throughput");
+            if (throughput != null && result.getThroughput() < throughput * (1 - threshold)) {
+                regressions.add(String.format("%s throughput %.1f < baseline %.1f", name, result.getThroughput(), throughput));
+            }
+            Double p95 = value(name + ".p95.micros");
+            if (p95 != null && result.getP95Micros() > p95 * (1 + threshold)) {
+                regressions.add(String.format("%s p95 %dus > baseline %.0fus", name, result.getP95Micros(), p95));
+            }
+            Double allocated = value(name + ".alloc.bytes");
+            if (allocated != null && result.getAllocatedBytesPerOp() > allocated * (1 + threshold)) {
+                regressions.add(String.format("%s alloc %dB/op > baseline %.0fB/op", name, result.getAllocatedBytesPerOp(), allocated));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * 기준값이 없어서 비교할 수 없는 키
+     */
+    public List<String> missing(List<PerfScenario> results) {
+        List<String> missing = new ArrayList<>();
+        for (PerfScenario result : results) {
+            for (String metric : METRICS) {
+                String key = result.getName() + metric;
+                if (value(key) == null) {
+                    missing.add(key);
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * 결과를 기준 파일과 같은 형식으로 저장한다. (-Dperf.update-baseline=true 면 기준 파일에 저장)
+     */
+    public static void write(Path file, List<PerfScenario> results, String comment) throws IOException {
+        Map<String, String> values = new TreeMap<>();
+        for (PerfScenario result : results) {
+            values.put(result.getName() + ".throughput", String.format("%.1f", result.getThroughput()));
+            values.put(result.getName() + ".p95.micros", Long.toString(result.getP95Micros()));
+            values.put(result.getName() + ".alloc.bytes", Long.toString(result.getAllocatedBytesPerOp()));
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# " + comment + System.lineSeparator());
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + System.lineSeparator());
+            }
+        }
+    }
+
+    private Double value(String key) {
+        String value = baseline.getProperty(key);
+        return value == null || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+}
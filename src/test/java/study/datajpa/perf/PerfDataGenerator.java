@@ -0,0 +1,152 @@
+package study.datajpa.perf;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.ItemKey;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 성능 테스트 데이터 생성기. 같은 seed 면 항상 같은 데이터가 만들어진다.
+ * <ul>
+ *     <li>팀 크기는 Zipf 분포 (소수의 큰 팀과 많은 작은 팀), 10% 는 팀 없음</li>
+ *     <li>username 은 음절 조합 이름 풀에서 Zipf 분포로 고르고 일부에만 숫자를 붙인다. (인기 있는 이름은 중복이 많다)</li>
+ *     <li>나이는 35 세 중심 정규 분포, 수정 시각은 기준 시각 이전 2년 사이</li>
+ * </ul>
+ * id 는 ID_BASE 부터 쓰므로 애플리케이션이 만든 행과 겹치지 않고, cleanUp() 으로 생성한 행만 지운다.
+ */
+public class PerfDataGenerator {
+
+    public static final long ID_BASE = 2_000_000_000L;
+    // 생성하는 item 키의 상한. ItemKey.next() 가 만드는 키(타임스탬프 << 22)는 이보다 훨씬 크다.
+    private static final long ITEM_ID_LIMIT = 2 * ID_BASE;
+    public static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int NAME_POOL_SIZE = 5000;
+    private static final String[] SYLLABLES = {
+            "ka", "ri", "mo", "su", "jin", "hee", "min", "seo", "won", "ho",
+            "yu", "na", "ji", "hyun", "woo", "eun", "tae", "kyung", "sol", "bin"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    private int teams;
+    private int members;
+    private String[] names;
+
+    public PerfDataGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    public void generate(int teams, int members, int items) {
+        this.teams = teams;
+        this.members = members;
+        this.names = namePool();
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < teams; i++) {
+            batch.add(new Object[]{ID_BASE + i, "team-" + names[i % names.length] + "-" + i});
+            flushIfFull(batch, "insert into team (team_id, name) values (?, ?)", i == teams - 1);
+        }
+
+        ZipfSampler teamSizes = new ZipfSampler(teams, 1.1, random);
+        ZipfSampler popularNames = new ZipfSampler(names.length, 1.0, random);
+        for (int i = 0; i < members; i++) {
+            Long teamId = random.nextInt(10) == 0 ? null : ID_BASE + teamSizes.next();
+            Timestamp modified = Timestamp.valueOf(BASE_TIME.minusSeconds(random.nextInt(2 * 365 * 24 * 3600)));
+            batch.add(new Object[]{ID_BASE + i, username(popularNames), age(), teamId, modified, modified});
+            flushIfFull(batch, "insert into member (member_id, username, age, team_id, created_date, last_modified_date)" +
+                    " values (?, ?, ?, ?, ?, ?)", i == members - 1);
+        }
+
+        for (int i = 0; i < items; i++) {
+            batch.add(new Object[]{ItemKey.encode(ID_BASE + i), Timestamp.valueOf(BASE_TIME.minusSeconds(i))});
+            flushIfFull(batch, "insert into item (id, created_date) values (?, ?)", i == items - 1);
+        }
+    }
+
+    public void cleanUp() {
+        jdbcTemplate.update("delete from member where member_id >= ?", ID_BASE);
+        jdbcTemplate.update("delete from team where team_id >= ?", ID_BASE);
+        // 이전 실행이 중간에 끝나서 남은 행도 지우도록 이번 실행의 개수가 아니라 고정 범위로 지운다.
+        jdbcTemplate.update("delete from item where id >= ? and id < ?",
+                ItemKey.encode(ID_BASE), ItemKey.encode(ITEM_ID_LIMIT));
+    }
+
+    public long randomMemberId(Random random) {
+        return ID_BASE + random.nextInt(members);
+    }
+
+    public long randomTeamId(Random random) {
+        return ID_BASE + random.nextInt(teams);
+    }
+
+    /**
+     * 이름 풀에서 앞쪽(인기 있는) 이름일수록 자주 고른다.
+     */
+    public String randomName(Random random) {
+        return names[Math.min((int) (Math.abs(random.nextGaussian()) * 20), names.length - 1)];
+    }
+
+    private String[] namePool() {
+        String[] pool = new String[NAME_POOL_SIZE];
+        for (int i = 0; i < pool.length; i++) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 2 + random.nextInt(2);
+            for (int j = 0; j < syllables; j++) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            pool[i] = name.toString();
+        }
+        return pool;
+    }
+
+    private String username(ZipfSampler popularNames) {
+        String name = names[popularNames.next()];
+        return random.nextInt(10) < 4 ? name + random.nextInt(1000) : name;
+    }
+
+    private int age() {
+        return (int) Math.max(10, Math.min(80, Math.round(35 + random.nextGaussian() * 12)));
+    }
+
+    private void flushIfFull(List<Object[]> batch, String sql, boolean last) {
+        if (batch.size() == BATCH_SIZE || last) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 0..n-1 중 k 를 1/(k+1)^s 비율로 고른다. (누적 분포 이진 탐색)
+     */
+    private static class ZipfSampler {
+
+        private final double[] cumulative;
+        private final Random random;
+
+        ZipfSampler(int n, double s, Random random) {
+            this.cumulative = new double[n];
+            this.random = random;
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, s);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int next() {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package study.datajpa.perf;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.dto.MemberChangeWatermark;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.ItemKey;
+import study.datajpa.repository.FetchPlan;
+import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 성능 회귀 테스트. 고정 seed 로 데이터를 만든 뒤 컨트롤러(MockMvc)와 리포지토리 시나리오를 실행하고 기준 결과와 비교한다.
+ * ./gradlew perfTest -Dperf.members=1000000 -Dperf.teams=10000
+ * ./gradlew perfTest -Dperf.update-baseline=true   (현재 결과를 기준으로 저장, 기준 측정 장비에서 실행)
+ */
+@Tag("perf")
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PerfRegressionTest {
+
+    private static final long SEED = Long.getLong("perf.seed", 20240101L);
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    PerfDataGenerator generator;
+
+    @BeforeAll
+    void generate() {
+        int members = Integer.getInteger("perf.members", 200_000);
+        int teams = Integer.getInteger("perf.teams", 2_000);
+        int items = Integer.getInteger("perf.items", 100_000);
+
+        generator = new PerfDataGenerator(jdbcTemplate, SEED);
+        generator.cleanUp();
+        long start = System.nanoTime();
+        generator.generate(teams, members, items);
+        System.out.println("generated members=" + members + ", teams=" + teams + ", items=" + items
+                + " in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        generator.cleanUp();
+    }
+
+    @Test
+    void scenarios() throws Exception {
+        int warmup = Integer.getInteger("perf.warmup", 300);
+        int iterations = Integer.getInteger("perf.iterations", 2_000);
+        List<PerfScenario> results = new ArrayList<>();
+
+        results.add(PerfScenario.run("controller.member", SEED, warmup, iterations, random ->
+                mockMvc.perform(get("/members/{id}", generator.randomMemberId(random)))
+                        .andExpect(status().isOk())));
+
+        results.add(PerfScenario.run("controller.list", SEED, warmup, iterations, random ->
+                mockMvc.perform(get("/members").param("page", Integer.toString(random.nextInt(100))).param("size", "20"))
+                        .andExpect(status().isOk())));
+
+        results.add(PerfScenario.run("controller.batch", SEED, warmup, iterations, random -> {
+            StringJoiner ids = new StringJoiner(",");
+            for (int i = 0; i < 50; i++) {
+                ids.add(Long.toString(generator.randomMemberId(random)));
+            }
+            mockMvc.perform(get("/members/batch").param("ids", ids.toString()))
+                    .andExpect(status().isOk());
+        }));
+
+        results.add(PerfScenario.run("repository.search", SEED, warmup, iterations, random -> {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsernamePrefix(generator.randomName(random));
+            condition.setAgeGoe(20);
+            memberRepository.search(condition, PageRequest.of(0, 20));
+        }));
+
+        results.add(PerfScenario.run("repository.username", SEED, warmup, iterations, random ->
+                memberRepository.findByUsername(generator.randomName(random), FetchPlan.of("team"))));
+
+        results.add(PerfScenario.run("repository.changes", SEED, warmup, iterations / 10, random ->
+                memberRepository.findChangesSince(new MemberChangeWatermark(
+                        PerfDataGenerator.BASE_TIME.minusDays(random.nextInt(700)), 0), 500)));
+
+        results.add(PerfScenario.run("repository.item", SEED, warmup, iterations, random ->
+                itemRepository.findById(ItemKey.encode(PerfDataGenerator.ID_BASE + random.nextInt(1000)))));
+
+        results.forEach(System.out::println);
+
+        Path resultsFile = Paths.get(System.getProperty("perf.results", "build/perf/perf-results.properties"));
+        Path baselineFile = Paths.get(System.getProperty("perf.baseline", "src/test/resources/perf-baseline.properties"));
+        PerfBaseline.write(resultsFile, results, "perfTest " + LocalDateTime.now() + ", seed=" + SEED);
+        if (Boolean.getBoolean("perf.update-baseline")) {
+            PerfBaseline.write(baselineFile, results, "baseline " + LocalDateTime.now() + ", seed=" + SEED);
+            return;
+        }
+
+        PerfBaseline baseline = new PerfBaseline(baselineFile, Double.parseDouble(System.getProperty("perf.threshold", "0.2")));
+        // 기준값이 없으면 아무것도 비교하지 않은 채 통과하므로 실패시킨다.
+        assertThat(baseline.missing(results))
+                .as("no baseline in %s, record one on the reference machine with -Dperf.update-baseline=true", baselineFile)
+                .isEmpty();
+        assertThat(baseline.regressions(results)).as("performance regressions against %s", baselineFile).isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.perf;
+
+import lombok.Getter;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 시나리오 하나를 한 스레드에서 warmup 후 iterations 번 실행하고 처리량, 지연 시간 백분위, 호출당 할당량을 잰다.
+ */
+@Getter
+public class PerfScenario {
+
+    public interface Operation {
+        void run(Random random) throws Exception;
+    }
+
+    private final String name;
+    private double throughput;
+    private long p50Micros;
+    private long p95Micros;
+    private long p99Micros;
+    private long allocatedBytesPerOp;
+
+    private PerfScenario(String name) {
+        this.name = name;
+    }
+
+    public static PerfScenario run(String name, long seed, int warmup, int iterations, Operation operation) throws Exception {
+        Random random = new Random(seed);
+        for (int i = 0; i < warmup; i++) {
+            operation.run(random);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] latencies = new long[iterations];
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long opStart = System.nanoTime();
+            operation.run(random);
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Arrays.sort(latencies);
+        PerfScenario result = new PerfScenario(name);
+        result.throughput = iterations * 1_000_000_000.0 / elapsed;
+        result.p50Micros = percentile(latencies, 0.50) / 1000;
+        result.p95Micros = percentile(latencies, 0.95) / 1000;
+        result.p99Micros = percentile(latencies, 0.99) / 1000;
+        result.allocatedBytesPerOp = allocated / iterations;
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s %10.1f ops/s  p50 %7dus  p95 %7dus  p99 %7dus  %9d B/op",
+                name, throughput, p50Micros, p95Micros, p99Micros, allocatedBytesPerOp);
+    }
+}
@@ -0,0 +1,85 @@
+package study.datajpa.reactive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 동시 요청 N 개가 findByAge 결과를 읽을 때: 스레드 풀 + JPA vs R2DBC
+ * 소요 시간과 최대 스레드 수를 비교한다.
+ * ./gradlew benchmark --tests '*ReactiveMemberBenchmarkTest' -Dbenchmark.concurrency=200
+ */
+@Tag("benchmark")
+@SpringBootTest
+class ReactiveMemberBenchmarkTest {
+
+    private static final int AGE = 77;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ReactiveMemberController reactiveMemberController;
+
+    List<Long> ids = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(ids);
+    }
+
+    @Test
+    void jpaVersusR2dbc() throws Exception {
+        int concurrency = Integer.getInteger("benchmark.concurrency", 100);
+        int rows = Integer.getInteger("benchmark.members", 1000);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("reactive" + i, AGE));
+        }
+        memberRepository.saveAll(members).forEach(m -> ids.add(m.getId()));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        // servlet 방식: 요청마다 스레드 하나 (Tomcat 기본 최대 200)
+        threads.resetPeakThreadCount();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, 200));
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(() -> memberRepository.findByAge(AGE, PageRequest.of(0, rows)).getNumberOfElements()));
+        }
+        for (Future<Integer> future : futures) {
+            future.get();
+        }
+        long jpaMillis = (System.nanoTime() - start) / 1_000_000;
+        int jpaPeakThreads = threads.getPeakThreadCount();
+        executor.shutdown();
+
+        // reactive: 같은 수의 요청을 구독만 하고 소수의 이벤트 루프 스레드로 처리
+        threads.resetPeakThreadCount();
+        start = System.nanoTime();
+        Flux.range(0, concurrency)
+                .flatMap(i -> reactiveMemberController.findByAge(AGE).count(), concurrency)
+                .blockLast();
+        long r2dbcMillis = (System.nanoTime() - start) / 1_000_000;
+        int r2dbcPeakThreads = threads.getPeakThreadCount();
+
+        System.out.println("concurrency = " + concurrency + ", rows = " + rows);
+        System.out.println("jpa   = " + jpaMillis + "ms, peak threads = " + jpaPeakThreads);
+        System.out.println("r2dbc = " + r2dbcMillis + "ms, peak threads = " + r2dbcPeakThreads);
+    }
+}
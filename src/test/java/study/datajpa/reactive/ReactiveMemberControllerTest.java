@@ -0,0 +1,87 @@
+package study.datajpa.reactive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.test.StepVerifier;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.tenant.TenantContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.tenants=reactive")
+class ReactiveMemberControllerTest {
+
+    private static final int AGE = 7101;
+
+    @Autowired
+    ReactiveMemberController reactiveMemberController;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    List<Long> memberIds = new ArrayList<>();
+    List<Long> teamIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(memberIds);
+        teamRepository.deleteAllByIdInBatch(teamIds);
+    }
+
+    @Test
+    void softDeletedRowsAreHidden() {
+        // given
+        Team team = teamRepository.save(new Team("reactiveTeam"));
+        teamIds.add(team.getId());
+        Member member = memberRepository.save(new Member("reactive-live", AGE, team));
+        Member deleted = memberRepository.save(new Member("reactive-deleted", AGE));
+        memberIds.add(member.getId());
+        memberIds.add(deleted.getId());
+        memberRepository.deleteById(deleted.getId());
+        // 벌크 작업 등으로 팀만 먼저 소프트 삭제된 경우
+        jdbcTemplate.update("update team set deleted_at = current_timestamp where team_id = ?", team.getId());
+
+        // when & then
+        StepVerifier.create(reactiveMemberController.findMember(member.getId()))
+                .assertNext(dto -> {
+                    assertThat(dto.getUsername()).isEqualTo("reactive-live");
+                    assertThat(dto.getTeamName()).isNull();
+                })
+                .verifyComplete();
+        StepVerifier.create(reactiveMemberController.findMember(deleted.getId()))
+                .verifyComplete();
+        StepVerifier.create(reactiveMemberController.findByAge(AGE))
+                .assertNext(dto -> assertThat(dto.getUsername()).isEqualTo("reactive-live"))
+                .verifyComplete();
+    }
+
+    @Test
+    void otherTenantIsRejected() {
+        StepVerifier.create(TenantContext.call("REACTIVE", () -> reactiveMemberController.findMember(1L)))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .extracting(ex -> ((ResponseStatusException) ex).getStatus())
+                        .isEqualTo(HttpStatus.BAD_REQUEST))
+                .verify();
+        StepVerifier.create(TenantContext.call("REACTIVE", () -> reactiveMemberController.findByAge(AGE)))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.readmodel;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * 읽기 모델 메모리 사용량 (회원 100만 명당)과 조회 시간, 쓰기가 계속 들어올 때 refresh 비용
+ * ./gradlew benchmark --tests '*MemberReadModelBenchmarkTest' -Dbenchmark.members=5000000 -Dbenchmark.writes-per-second=5000
+ */
+@Tag("benchmark")
+class MemberReadModelBenchmarkTest {
+
+    @Test
+    void footprintPerMillion() {
+        int count = Integer.getInteger("benchmark.members", 1_000_000);
+        int teams = Integer.getInteger("benchmark.teams", 1000);
+        Random random = new Random(42);
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        MemberSnapshot.Builder builder = new MemberSnapshot.Builder();
+        for (int i = 1; i <= teams; i++) {
+            builder.putTeam(i, "team" + i);
+        }
+        for (int i = 1; i <= count; i++) {
+            builder.putMember(new MemberRecord(i, "member" + i, random.nextInt(80), 1 + random.nextInt(teams)));
+        }
+        MemberSnapshot snapshot = builder.build();
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long used = usedHeap() - before;
+
+        long lookups = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < 1_000_000; i++) {
+            lookups += snapshot.findById(1 + random.nextInt(count)).getAge();
+        }
+        long lookupNanos = (System.nanoTime() - start) / 1_000_000;
+
+        // 변경 1건 반영 (copy-on-write)
+        start = System.nanoTime();
+        MemberSnapshot updated = snapshot.toBuilder().putMember(new MemberRecord(1, "changed", 1, 1)).build();
+        long refreshMicros = (System.nanoTime() - start) / 1_000;
+
+        // 초당 writes 건의 변경이 refresh-interval(100ms) 마다 나뉘어 반영되는 상황
+        int writesPerSecond = Integer.getInteger("benchmark.writes-per-second", 1000);
+        int refreshes = Integer.getInteger("benchmark.refreshes", 100);
+        int changesPerRefresh = Math.max(1, writesPerSecond / 10);
+        long allocatedBefore = allocatedBytes();
+        start = System.nanoTime();
+        for (int r = 0; r < refreshes; r++) {
+            MemberSnapshot.Builder changes = updated.toBuilder();
+            for (int i = 0; i < changesPerRefresh; i++) {
+                int id = 1 + random.nextInt(count);
+                changes.putMember(new MemberRecord(id, "member" + id, random.nextInt(80), 1 + random.nextInt(teams)));
+            }
+            updated = changes.build();
+        }
+        long steadyMicros = (System.nanoTime() - start) / 1_000 / refreshes;
+        long steadyAllocated = (allocatedBytes() - allocatedBefore) / refreshes;
+
+        System.out.println("members=" + updated.size() + ", build " + buildMillis + "ms"
+                + ", heap " + used / 1024 / 1024 + "MB (" + used * 1_000_000L / count / 1024 / 1024 + "MB per million)"
+                + ", findById " + lookupNanos + "ns/op, single change refresh " + refreshMicros + "us"
+                + ", steady " + writesPerSecond + " writes/s: " + steadyMicros + "us and "
+                + steadyAllocated / 1024 + "KB allocated per refresh (" + steadyAllocated * 10 / 1024 / 1024 + "MB/s)"
+                + " (" + lookups + ")");
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
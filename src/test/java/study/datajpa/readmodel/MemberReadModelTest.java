@@ -0,0 +1,86 @@
+package study.datajpa.readmodel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 커밋 후 이벤트로 반영되므로 테스트 트랜잭션을 쓰지 않는다.
+@SpringBootTest(properties = "app.read-model.enabled=true")
+class MemberReadModelTest {
+
+    @Autowired
+    MemberReadModel memberReadModel;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    Member member;
+    Team team;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(List.of(member.getId()));
+        teamRepository.deleteAllByIdInBatch(List.of(team.getId()));
+    }
+
+    @Test
+    void applyCommittedChanges() {
+        // given
+        team = teamRepository.save(new Team("readModelTeam"));
+        member = memberRepository.save(new Member("readModel1", 10, team));
+
+        // when
+        memberReadModel.refresh();
+
+        // then
+        MemberRecord record = memberReadModel.findById(member.getId()).get();
+        assertThat(record.getUsername()).isEqualTo("readModel1");
+        assertThat(record.getTeamId()).isEqualTo(team.getId());
+        assertThat(memberReadModel.teamName(team.getId())).isEqualTo("readModelTeam");
+        assertThat(memberReadModel.findByUsername("readModel1")).extracting(MemberRecord::getId).containsExactly(member.getId());
+        assertThat(memberReadModel.findByTeamId(team.getId())).extracting(MemberRecord::getId).containsExactly(member.getId());
+
+        // 수정
+        member.setUsername("readModel2");
+        member = memberRepository.save(member);
+        memberReadModel.refresh();
+        assertThat(memberReadModel.findByUsername("readModel1")).isEmpty();
+        assertThat(memberReadModel.findByUsername("readModel2")).hasSize(1);
+
+        // 삭제 (soft delete)
+        memberRepository.delete(member);
+        memberReadModel.refresh();
+        assertThat(memberReadModel.findById(member.getId())).isEmpty();
+        assertThat(memberReadModel.findByTeamId(team.getId())).isEmpty();
+    }
+
+    @Test
+    void reloadAfterBulkUpdate() {
+        // given
+        team = teamRepository.save(new Team("readModelBulkTeam"));
+        member = memberRepository.save(new Member("readModelBulk", 9100, team));
+        memberReadModel.refresh();
+        assertThat(memberReadModel.findById(member.getId()).get().getAge()).isEqualTo(9100);
+
+        // when
+        // 벌크 쿼리는 EntityChangedEvent 가 없으므로 BulkChangedEvent 로 테넌트를 다시 읽는다.
+        memberRepository.bulkAgePlus(9100);
+        memberReadModel.refresh();
+
+        // then
+        assertThat(memberReadModel.findById(member.getId()).get().getAge()).isEqualTo(9101);
+        assertThat(memberReadModel.findByTeamId(team.getId())).extracting(MemberRecord::getId).containsExactly(member.getId());
+    }
+}
@@ -0,0 +1,60 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.ItemKey;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Item PK: 임의 문자열(UUID) vs 시간 순서 키(ItemKey) insert 처리량과 테이블+인덱스 크기
+ * ./gradlew benchmark --tests '*ItemKeyBenchmarkTest' -Dbenchmark.items=10000000
+ */
+@Tag("benchmark")
+@SpringBootTest
+class ItemKeyBenchmarkTest {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from item");
+    }
+
+    @Test
+    void randomVersusTimeOrdered() {
+        int count = Integer.getInteger("benchmark.items", 200_000);
+
+        run("random uuid", count, () -> UUID.randomUUID().toString());
+        jdbcTemplate.update("delete from item");
+        run("item key   ", count, ItemKey::next);
+    }
+
+    private void run(String name, int count, Supplier<String> keys) {
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Object[]{keys.get(), new Timestamp(System.currentTimeMillis())});
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into item (id, created_date) values (?, ?)", batch);
+                batch.clear();
+            }
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        Long diskSpace = jdbcTemplate.queryForObject("call disk_space_used('ITEM')", Long.class);
+        System.out.println(name + " : " + (count * 1000L / elapsedMillis) + " rows/s, "
+                + diskSpace / 1024 + "KB (table + index)");
+    }
+}
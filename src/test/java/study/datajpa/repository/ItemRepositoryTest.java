@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.datajpa.entity.Item;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -18,4 +19,12 @@ class ItemRepositoryTest {
         itemRepository.save(new Item("A"));
     }
 
+    @Test
+    void saveWithItemKey() {
+        Item item = itemRepository.save(Item.create());
+
+        assertThat(item.isNew()).isFalse();
+        assertThat(itemRepository.findById(item.getId())).isPresent();
+    }
+
 }
\ No newline at end of file
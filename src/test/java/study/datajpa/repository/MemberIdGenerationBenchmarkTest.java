@@ -0,0 +1,74 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 여러 스레드가 동시에 Member 를 저장할 때의 처리량 (pooled-lo 시퀀스)
+ * ./gradlew benchmark --tests '*MemberIdGenerationBenchmarkTest' -Dbenchmark.threads=32
+ */
+@Tag("benchmark")
+@SpringBootTest
+class MemberIdGenerationBenchmarkTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    Queue<Long> ids = new ConcurrentLinkedQueue<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(new ArrayList<>(ids));
+    }
+
+    @Test
+    void concurrentInsert() throws Exception {
+        int threads = Integer.getInteger("benchmark.threads", 16);
+        int perThread = Integer.getInteger("benchmark.members", 2000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(memberRepository.save(new Member("seq" + thread + "_" + i, i % 100)).getId());
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - begin) / 1_000_000);
+        executor.shutdown();
+
+        int total = threads * perThread;
+        assertThat(ids).doesNotHaveDuplicates().hasSize(total);
+
+        System.out.println("threads    = " + threads);
+        System.out.println("inserted   = " + total);
+        System.out.println("elapsed    = " + elapsedMillis + "ms");
+        System.out.println("throughput = " + (total * 1000L / elapsedMillis) + " rows/s");
+    }
+}
@@ -6,14 +6,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberChange;
+import study.datajpa.dto.MemberChangeWatermark;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.dto.MemberProjection;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -378,4 +382,120 @@ class MemberRepositoryTest {
             System.out.println("memberProjection = " + memberProjection.getTeamName());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void search() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("user_4", 40, teamB));
+
+        em.flush();
+        em.clear();
+
+        // when
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("member");
+        condition.setAgeGoe(15);
+        condition.setTeamName("teamA");
+
+        List<Member> result = memberRepository.search(condition);
+
+        // then
+        assertThat(result).extracting("username").containsExactly("member2");
+    }
+
+    @Test
+    void searchPaging() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, 10 + i));
+        }
+        memberRepository.save(new Member("member_%", 10));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("member");
+        condition.setAgeLoe(13);
+
+        // when
+        Page<Member> page = memberRepository.search(condition,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username")));
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting("username").containsExactly("member_%", "member3");
+
+        // like 와일드카드 문자는 그대로 비교
+        condition.setUsernamePrefix("member_");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member_%");
+    }
+
+    @Test
+    void softDelete() {
+        // given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        Member member = memberRepository.save(new Member("member1", 10, teamA));
+        em.flush();
+        em.clear();
+
+        // when
+        memberRepository.deleteById(member.getId());
+        teamRepository.deleteById(teamA.getId());
+        em.flush();
+        em.clear();
+
+        // then
+        // 조회 대상에서는 빠지고 행은 deleted_at 과 함께 남아 있다.
+        assertThat(memberRepository.findById(member.getId())).isEmpty();
+        assertThat(memberRepository.findByUsername("member1")).isEmpty();
+        assertThat(teamRepository.findById(teamA.getId())).isEmpty();
+
+        Object deletedAt = em.createNativeQuery("select deleted_at from member where member_id = ?")
+                .setParameter(1, member.getId())
+                .getSingleResult();
+        assertThat(deletedAt).isNotNull();
+    }
+
+    @Test
+    void findChangesSince() {
+        // given
+        Member member1 = memberRepository.save(new Member("change1", 10));
+        Member member2 = memberRepository.save(new Member("change2", 20));
+        Member member3 = memberRepository.save(new Member("change3", 30));
+        em.flush();
+        memberRepository.deleteById(member3.getId());
+        em.flush();
+        em.clear();
+
+        // 다른 테스트 데이터와 섞이지 않도록 먼 미래 시각으로 맞춘다. (member1, member2 는 같은 시각)
+        LocalDateTime time = LocalDateTime.of(2100, 1, 1, 0, 0);
+        setLastModifiedDate(member1.getId(), time);
+        setLastModifiedDate(member2.getId(), time);
+        setLastModifiedDate(member3.getId(), time.plusSeconds(1));
+
+        // when
+        List<MemberChange> first = memberRepository.findChangesSince(
+                new MemberChangeWatermark(time.minusSeconds(1), 0), 2);
+        List<MemberChange> second = memberRepository.findChangesSince(first.get(first.size() - 1).watermark(), 2);
+
+        // then
+        assertThat(first).extracting("username").containsExactly("change1", "change2");
+        assertThat(second).extracting("username").containsExactly("change3");
+        assertThat(second.get(0).isDeleted()).isTrue();
+        assertThat(memberRepository.findChangesSince(second.get(0).watermark(), 2)).isEmpty();
+    }
+
+    private void setLastModifiedDate(Long id, LocalDateTime lastModifiedDate) {
+        em.createNativeQuery("update member set last_modified_date = ? where member_id = ?")
+                .setParameter(1, lastModifiedDate)
+                .setParameter(2, id)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,145 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.controller.MemberController;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.FetchPlan;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.fetch-plan.min-samples=3",
+        "app.fetch-plan.explore-every=1000",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional
+class FetchPlanAdvisorTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    FetchPlanAdvisor fetchPlanAdvisor;
+
+    @Autowired
+    MemberController memberController;
+
+    @Test
+    void fetchPlan() {
+        // given
+        Team team = new Team("fetchPlanTeam");
+        em.persist(team);
+        em.persist(new Member("fetchPlan1", 10, team));
+        em.flush();
+        em.clear();
+
+        // when
+        List<Member> lazy = memberRepository.findByUsername("fetchPlan1", FetchPlan.none());
+        assertThat(Hibernate.isInitialized(lazy.get(0).getTeam())).isFalse();
+        em.clear();
+
+        List<Member> fetched = memberRepository.findByUsername("fetchPlan1", FetchPlan.of("team"));
+        assertThat(Hibernate.isInitialized(fetched.get(0).getTeam())).isTrue();
+    }
+
+    @Test
+    void learnUsage() {
+        // given
+        Team team = new Team("fetchPlanTeam");
+        em.persist(team);
+        em.persist(new Member("fetchPlan2", 10, team));
+        em.flush();
+        em.clear();
+        String site = "FetchPlanAdvisorTest.learnUsage";
+
+        // 팀을 쓰는 호출이 쌓이면 팀을 같이 읽는다.
+        for (int i = 0; i < 3; i++) {
+            call(site);
+        }
+        assertThat(fetchPlanAdvisor.advise(site)).isEqualTo(FetchPlan.of("team"));
+
+        // 같이 읽은 연관관계는 탐색 호출(plan 없음)에서만 다시 측정된다.
+        for (int i = 0; i < 10; i++) {
+            List<Member> members = memberRepository.findByUsername("fetchPlan2", FetchPlan.none());
+            fetchPlanAdvisor.record(site, FetchPlan.none(), members);
+            em.clear();
+        }
+        assertThat(fetchPlanAdvisor.advise(site)).isEqualTo(FetchPlan.none());
+    }
+
+    private void call(String site) {
+        FetchPlan plan = fetchPlanAdvisor.advise(site);
+        List<Member> members = memberRepository.findByUsername("fetchPlan2", plan);
+        members.forEach(member -> member.getTeam().getName());
+        fetchPlanAdvisor.record(site, plan, members);
+        em.clear();
+    }
+
+    @Test
+    void controllerStopsNPlusOne() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("fetchPlanTeam" + i);
+            em.persist(team);
+            em.persist(new Member("fetchPlan3", 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        // 처음에는 회원 조회 1번 + 회원마다 팀 조회 (N+1)
+        assertThat(statementCount(() -> memberController.findByUsername("fetchPlan3"))).isEqualTo(4);
+        statementCount(() -> memberController.findByUsername("fetchPlan3"));
+        statementCount(() -> memberController.findByUsername("fetchPlan3"));
+
+        // 팀 사용이 min-samples 만큼 쌓이면 팀을 같이 읽어서 쿼리 한 번
+        List<MemberDto> result = new ArrayList<>();
+        assertThat(statementCount(() -> result.addAll(memberController.findByUsername("fetchPlan3")))).isEqualTo(1);
+        assertThat(result).extracting(MemberDto::getTeamName)
+                .containsExactlyInAnyOrder("fetchPlanTeam0", "fetchPlanTeam1", "fetchPlanTeam2");
+    }
+
+    @Test
+    void invalidFetchPlan() {
+        assertThatThrownBy(() -> FetchPlan.of("team.members.team"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FetchPlan.of("team."))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // 페이징 조회에서 컬렉션 fetch 는 메모리 페이징이 되므로 거절
+        assertThatThrownBy(() -> memberRepository.findAll(PageRequest.of(0, 10), FetchPlan.of("team.members")))
+                .isInstanceOf(IllegalArgumentException.class);
+        // 없는 정렬 속성은 HQL 오류가 아니라 PropertyReferenceException
+        assertThatThrownBy(() -> memberRepository.findAll(PageRequest.of(0, 10, Sort.by("unknown")), FetchPlan.none()))
+                .isInstanceOf(PropertyReferenceException.class);
+    }
+
+    private long statementCount(Runnable call) {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        call.run();
+        long count = statistics.getPrepareStatementCount() - before;
+        em.clear();
+        return count;
+    }
+}
@@ -0,0 +1,43 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.persistence-context.mode=flush-clear",
+        "app.persistence-context.flush-clear-entities=10"
+})
+@Transactional
+class PersistenceContextGovernorTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    void flushAndClear() {
+        for (int i = 0; i < 25; i++) {
+            memberRepository.save(new Member("governor" + i, i));
+        }
+
+        // 10건마다 flush + clear 되어 영속성 컨텍스트가 커지지 않는다.
+        int managed = em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+        assertThat(managed).isLessThan(10);
+
+        Long count = em.createQuery("select count(m) from Member m where m.username like 'governor%'", Long.class)
+                .getSingleResult();
+        assertThat(count).isEqualTo(25);
+    }
+}
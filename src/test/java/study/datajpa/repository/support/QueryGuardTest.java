@@ -0,0 +1,86 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.monitoring.SlowQueryRecorder;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.query-guard.methods[MemberRepository.findUsernameList].max-rows=1",
+        "app.query-guard.methods[MemberRepository.findByAge].max-rows=1",
+        "app.query-guard.methods[MemberRepository.findByUsername].timeout=2s",
+        "app.query-guard.slow-query-threshold=0ms"
+})
+@Transactional
+class QueryGuardTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    QueryGuardProperties queryGuardProperties;
+
+    @Autowired
+    SlowQueryRecorder slowQueryRecorder;
+
+    @Test
+    void maxRows() {
+        memberRepository.save(new Member("guard1", 10));
+        memberRepository.save(new Member("guard2", 10));
+
+        assertThatThrownBy(() -> memberRepository.findUsernameList())
+                .isInstanceOf(QueryGuardException.class);
+
+        queryGuardProperties.setMode(QueryGuardProperties.Mode.TRUNCATE);
+        try {
+            assertThat(memberRepository.findUsernameList()).hasSize(1);
+        } finally {
+            queryGuardProperties.setMode(QueryGuardProperties.Mode.FAIL);
+        }
+    }
+
+    @Test
+    void maxRowsAppliedToQuery() {
+        memberRepository.save(new Member("guard4", 77));
+        memberRepository.save(new Member("guard5", 77));
+        memberRepository.save(new Member("guard6", 77));
+        slowQueryRecorder.clear();
+
+        // 페이지 크기가 한도보다 커도 쿼리는 한도 + 1 행만 읽는다
+        assertThatThrownBy(() -> memberRepository.findByAge(77, PageRequest.of(0, 10)))
+                .isInstanceOf(QueryGuardException.class);
+        assertThat(slowQueryRecorder.recent())
+                .anyMatch(slowQuery -> slowQuery.getSql().contains("limit"));
+
+        queryGuardProperties.setMode(QueryGuardProperties.Mode.TRUNCATE);
+        try {
+            Page<Member> page = memberRepository.findByAge(77, PageRequest.of(0, 10));
+            assertThat(page.getContent()).hasSize(1);
+            assertThat(page.getTotalElements()).isGreaterThan(1);
+        } finally {
+            queryGuardProperties.setMode(QueryGuardProperties.Mode.FAIL);
+        }
+    }
+
+    @Test
+    void timeoutAndSlowQuery() {
+        memberRepository.save(new Member("guard3", 10));
+
+        // 타임아웃이 걸린 메서드도 정상 동작
+        assertThat(memberRepository.findByUsername("guard3")).hasSize(1);
+
+        // threshold 0ms 이므로 모든 SQL 이 기록된다. 바인딩 값은 SQL 에 붙이지 않고 마스킹해서 남긴다.
+        assertThat(slowQueryRecorder.recent())
+                .anyMatch(slowQuery -> slowQuery.getSql().contains("username=?")
+                        && slowQuery.getParameters().contains("gu***(6)"))
+                .noneMatch(slowQuery -> slowQuery.getSql().contains("guard3"));
+    }
+}
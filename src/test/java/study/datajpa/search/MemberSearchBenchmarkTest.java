@@ -0,0 +1,91 @@
+package study.datajpa.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+
+/**
+ * 부분 username 검색: like '%x%' vs 검색 인덱스 (CONTAINS / PREFIX)
+ * ./gradlew benchmark --tests '*MemberSearchBenchmarkTest' -Dbenchmark.members=2000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "app.search.enabled=true")
+class MemberSearchBenchmarkTest {
+
+    private static final long ID_BASE = 1_000_000_000L;
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] SYLLABLES = {"ka", "ri", "mo", "su", "jin", "hee", "min", "seo", "won", "ho"};
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberSearchIndex memberSearchIndex;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from member where member_id >= ?", ID_BASE);
+        memberSearchIndex.rebuild();
+    }
+
+    @Test
+    void likeVersusIndex() {
+        int count = Integer.getInteger("benchmark.members", 500_000);
+        int queries = Integer.getInteger("benchmark.queries", 200);
+        Random random = new Random(42);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Object[]{ID_BASE + i, username(random) + i, random.nextInt(80)});
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age) values (?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        long start = System.nanoTime();
+        memberSearchIndex.rebuild();
+        System.out.println("index build          : " + (System.nanoTime() - start) / 1_000_000 + "ms");
+
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < queries; i++) {
+            terms.add(SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+
+        run("like '%x%' limit 20 ", terms, term -> jdbcTemplate.queryForList(
+                "select member_id from member where username like ? limit 20", Long.class, "%" + term + "%").size());
+        run("like '%x%' count    ", terms, term -> jdbcTemplate.queryForObject(
+                "select count(*) from member where username like ?", Long.class, "%" + term + "%"));
+        run("index contains      ", terms, term -> memberSearchIndex.search(MemberSearchIndex.Target.USERNAME,
+                MemberSearchIndex.Mode.CONTAINS, term, PageRequest.of(0, 20)).getTotalElements());
+        run("index prefix        ", terms, term -> memberSearchIndex.search(MemberSearchIndex.Target.USERNAME,
+                MemberSearchIndex.Mode.PREFIX, term, PageRequest.of(0, 20)).getTotalElements());
+    }
+
+    private static String username(Random random) {
+        StringBuilder username = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            username.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return username.toString();
+    }
+
+    private static void run(String name, List<String> terms, ToLongFunction<String> query) {
+        long hits = 0;
+        long start = System.nanoTime();
+        for (String term : terms) {
+            hits += query.applyAsLong(term);
+        }
+        long micros = (System.nanoTime() - start) / 1000 / terms.size();
+        System.out.println(name + " : " + micros + "us/query (" + hits + " hits)");
+    }
+}
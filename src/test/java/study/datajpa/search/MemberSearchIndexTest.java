@@ -0,0 +1,137 @@
+package study.datajpa.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.job.MemberArchiveJob;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.datajpa.search.MemberSearchIndex.Mode.CONTAINS;
+import static study.datajpa.search.MemberSearchIndex.Mode.FUZZY;
+import static study.datajpa.search.MemberSearchIndex.Mode.PREFIX;
+import static study.datajpa.search.MemberSearchIndex.Target.TEAM_NAME;
+import static study.datajpa.search.MemberSearchIndex.Target.USERNAME;
+
+// 커밋 후 비동기로 반영되므로 테스트 트랜잭션을 쓰지 않는다.
+@SpringBootTest(properties = {"app.search.enabled=true", "app.archive.enabled=true"})
+@AutoConfigureMockMvc
+class MemberSearchIndexTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberArchiveJob memberArchiveJob;
+
+    @Autowired
+    MemberSearchIndex memberSearchIndex;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    List<Long> memberIds = new ArrayList<>();
+    Team team;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(memberIds);
+        if (team != null) {
+            teamRepository.deleteAllByIdInBatch(List.of(team.getId()));
+        }
+        // 벌크 삭제는 인덱스에 반영되지 않으므로 다른 테스트에 문서가 남지 않게 다시 만든다.
+        memberSearchIndex.rebuild();
+    }
+
+    @Test
+    void search() {
+        // given
+        team = teamRepository.save(new Team("searchTeamAlpha"));
+        for (String username : List.of("searchKim", "searchKimchi", "searchLee", "searchPark")) {
+            memberIds.add(memberRepository.save(new Member(username, 20, team)).getId());
+        }
+        awaitHits(() -> memberSearchIndex.search(USERNAME, PREFIX, "search", PageRequest.of(0, 10)), 4);
+
+        // then
+        assertThat(memberSearchIndex.search(USERNAME, PREFIX, "SEARCHKIM", PageRequest.of(0, 10)).getContent())
+                .extracting(MemberDto::getUsername).containsExactlyInAnyOrder("searchKim", "searchKimchi");
+        assertThat(memberSearchIndex.search(USERNAME, CONTAINS, "chLe", PageRequest.of(0, 10)).getContent())
+                .extracting(MemberDto::getUsername).containsExactly("searchLee");
+        assertThat(memberSearchIndex.search(USERNAME, FUZZY, "searchPrak", PageRequest.of(0, 10)).getContent())
+                .extracting(MemberDto::getUsername).containsExactly("searchPark");
+        // 짧은 CONTAINS 검색어의 *, ? 는 와일드카드가 아니라 문자
+        assertThat(memberSearchIndex.search(USERNAME, CONTAINS, "*", PageRequest.of(0, 10)).getTotalElements()).isZero();
+        assertThat(memberSearchIndex.search(USERNAME, CONTAINS, "?", PageRequest.of(0, 10)).getTotalElements()).isZero();
+
+        Page<MemberDto> byTeam = memberSearchIndex.search(TEAM_NAME, CONTAINS, "teamalp", PageRequest.of(1, 3));
+        assertThat(byTeam.getTotalElements()).isEqualTo(4);
+        assertThat(byTeam.getContent()).hasSize(1);
+        assertThat(byTeam.getContent().get(0).getTeamName()).isEqualTo("searchTeamAlpha");
+
+        // 삭제 반영
+        memberRepository.deleteById(memberIds.get(0));
+        awaitHits(() -> memberSearchIndex.search(USERNAME, PREFIX, "search", PageRequest.of(0, 10)), 3);
+    }
+
+    @Test
+    void bulkArchive() {
+        // given
+        Member member = memberRepository.save(new Member("searchArchived", 20));
+        memberIds.add(member.getId());
+        awaitHits(() -> memberSearchIndex.search(USERNAME, PREFIX, "searchArchived", PageRequest.of(0, 10)), 1);
+        jdbcTemplate.update("update member set last_modified_date = ? where member_id = ?",
+                LocalDateTime.now().minusYears(10), member.getId());
+
+        // when
+        // 벌크 쿼리로 옮겨진 회원도 BulkChangedEvent 로 인덱스에서 빠진다.
+        memberArchiveJob.archive(LocalDateTime.now().minusYears(9));
+
+        // then
+        awaitHits(() -> memberSearchIndex.search(USERNAME, PREFIX, "searchArchived", PageRequest.of(0, 10)), 0);
+        jdbcTemplate.update("delete from member_archive where member_id = ?", member.getId());
+    }
+
+    @Test
+    void badRequest() throws Exception {
+        mockMvc.perform(get("/members/search").param("q", "x").param("mode", "bogus"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/search").param("q", "x").param("target", "team_name").param("mode", "fuzzy"))
+                .andExpect(status().isOk());
+    }
+
+    private static void awaitHits(Supplier<Page<MemberDto>> search, long expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (search.get().getTotalElements() != expected && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertThat(search.get().getTotalElements()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 배치 저장은 별도 스레드에서 커밋되므로 테스트 트랜잭션을 쓰지 않는다.
+@SpringBootTest
+class MemberBatchWriterTest {
+
+    @Autowired
+    MemberBatchWriter memberBatchWriter;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    List<Long> savedIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(savedIds);
+    }
+
+    @Test
+    void concurrentSaves() {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            futures.add(CompletableFuture
+                    .supplyAsync(() -> memberBatchWriter.save(new Member("batch" + n, n % 50)), executor)
+                    .thenCompose(future -> future));
+        }
+        savedIds.addAll(futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+        executor.shutdown();
+
+        // then
+        assertThat(savedIds).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(memberRepository.findAllById(savedIds)).hasSize(200);
+    }
+
+    @Test
+    void saveAfterStop() throws Exception {
+        // given
+        MemberBatchWriter writer = new MemberBatchWriter(transactionManager, new SimpleMeterRegistry(),
+                10, Duration.ofMillis(5), 100);
+        writer.start();
+        writer.stop();
+
+        // when
+        CompletableFuture<Long> future = writer.save(new Member("batchStopped", 10));
+
+        // then
+        // 종료 후 요청은 대기열에 남아 끝나지 않는 대신 바로 실패한다.
+        assertThat(future).isCompletedExceptionally();
+        assertThatThrownBy(future::join).hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberLookupServiceTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberLookupService memberLookupService;
+
+    @Test
+    void findByIdWithVersion() {
+        // given
+        Member member = memberRepository.save(new Member("lookup1", 10));
+        em.flush();
+        em.clear();
+
+        // when
+        MemberLookupService.VersionedMember found = memberLookupService.findById(member.getId()).get();
+
+        // then
+        // 캐시 버전은 결과를 읽은 엔티티의 수정 시각
+        assertThat(found.getMember().getUsername()).isEqualTo("lookup1");
+        assertThat(found.getVersion()).isEqualTo(memberRepository.findLastModifiedDateById(member.getId()).get());
+        assertThat(memberLookupService.findById(-1L)).isEmpty();
+    }
+
+    @Test
+    void findByUsernameWithVersion() {
+        // given
+        Member member = memberRepository.save(new Member("lookup2", 10));
+        em.flush();
+        em.clear();
+
+        // when
+        List<MemberLookupService.VersionedMember> found = memberLookupService.findByUsername("lookup2");
+
+        // then
+        assertThat(found).hasSize(1);
+        assertThat(found.get(0).getMember().getId()).isEqualTo(member.getId());
+        assertThat(found.get(0).getVersion()).isEqualTo(memberRepository.findLastModifiedDateById(member.getId()).get());
+        assertThat(memberLookupService.findByUsername("lookup-none")).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.tenant;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기본 스키마와 테넌트 스키마의 조회 지연 시간 비교, 테넌트 간 데이터 격리 확인
+ * ./gradlew benchmark --tests '*TenantBenchmarkTest'
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "app.tenants=bench")
+class TenantBenchmarkTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    void singleTenantVersusTenantSchema() {
+        int iterations = Integer.getInteger("benchmark.iterations", 20_000);
+
+        Member publicMember = memberRepository.save(new Member("tenant-public", 10));
+        Member benchMember = TenantContext.call("BENCH", () -> memberRepository.save(new Member("tenant-bench", 10)));
+
+        // 격리: 다른 테넌트의 데이터는 보이지 않는다.
+        assertThat(TenantContext.call("BENCH", () -> memberRepository.findByUsername("tenant-public"))).isEmpty();
+        assertThat(memberRepository.findByUsername("tenant-bench")).isEmpty();
+
+        try {
+            // warm up
+            lookup(publicMember.getId(), iterations / 10);
+            TenantContext.run("BENCH", () -> lookup(benchMember.getId(), iterations / 10));
+
+            long publicNanos = lookup(publicMember.getId(), iterations);
+            long tenantNanos = TenantContext.call("BENCH", () -> lookup(benchMember.getId(), iterations));
+
+            System.out.println("PUBLIC avg = " + publicNanos / iterations / 1000 + "us");
+            System.out.println("BENCH  avg = " + tenantNanos / iterations / 1000 + "us");
+        } finally {
+            memberRepository.deleteById(publicMember.getId());
+            TenantContext.run("BENCH", () -> memberRepository.deleteById(benchMember.getId()));
+        }
+    }
+
+    private long lookup(Long id, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            memberRepository.findById(id);
+        }
+        return System.nanoTime() - start;
+    }
+}
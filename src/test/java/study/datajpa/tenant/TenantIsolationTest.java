@@ -0,0 +1,131 @@
+package study.datajpa.tenant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Item;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 테넌트마다 커넥션(스키마)이 다르므로 테스트 트랜잭션 하나로 묶지 않는다.
+@SpringBootTest(properties = "app.tenants=isolation")
+@AutoConfigureMockMvc
+class TenantIsolationTest {
+
+    private static final String TENANT = "ISOLATION";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    List<Long> publicMemberIds = new ArrayList<>();
+    List<Long> tenantMemberIds = new ArrayList<>();
+    List<String> publicItemIds = new ArrayList<>();
+    List<String> tenantItemIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllByIdInBatch(publicMemberIds);
+        itemRepository.deleteAllByIdInBatch(publicItemIds);
+        TenantContext.run(TENANT, () -> {
+            memberRepository.deleteAllByIdInBatch(tenantMemberIds);
+            itemRepository.deleteAllByIdInBatch(tenantItemIds);
+        });
+    }
+
+    @Test
+    void memberRepository() {
+        // given
+        Long publicId = memberRepository.save(new Member("isolation-public", 10)).getId();
+        Long tenantId = TenantContext.call(TENANT, () -> memberRepository.save(new Member("isolation-tenant", 10)).getId());
+        publicMemberIds.add(publicId);
+        tenantMemberIds.add(tenantId);
+
+        // then
+        assertThat(TenantContext.call(TENANT, () -> memberRepository.findByUsername("isolation-public"))).isEmpty();
+        assertThat(TenantContext.call(TENANT, () -> memberRepository.findById(publicId))).isEmpty();
+        assertThat(memberRepository.findByUsername("isolation-tenant")).isEmpty();
+        assertThat(memberRepository.findById(tenantId)).isEmpty();
+        assertThat(TenantContext.call(TENANT, () -> memberRepository.findByUsername("isolation-tenant")))
+                .extracting(Member::getId).containsExactly(tenantId);
+    }
+
+    @Test
+    void memberJpaRepository() {
+        // given
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long publicId = transaction.execute(status -> memberJpaRepository.save(new Member("isolation-jpa-public", 10)).getId());
+        Long tenantId = TenantContext.call(TENANT,
+                () -> transaction.execute(status -> memberJpaRepository.save(new Member("isolation-jpa-tenant", 10)).getId()));
+        publicMemberIds.add(publicId);
+        tenantMemberIds.add(tenantId);
+
+        // then
+        assertThat(TenantContext.call(TENANT, () -> transaction.execute(status -> memberJpaRepository.findById(publicId)))).isEmpty();
+        assertThat(transaction.execute(status -> memberJpaRepository.findById(tenantId))).isEmpty();
+        assertThat(TenantContext.call(TENANT, () -> transaction.execute(status ->
+                memberJpaRepository.findByUsernameAndAgeGreaterThen("isolation-jpa-tenant", 0))))
+                .extracting(Member::getId).containsExactly(tenantId);
+    }
+
+    @Test
+    void itemRepository() {
+        // given
+        String publicId = itemRepository.save(Item.create()).getId();
+        String tenantId = TenantContext.call(TENANT, () -> itemRepository.save(Item.create()).getId());
+        publicItemIds.add(publicId);
+        tenantItemIds.add(tenantId);
+
+        // then
+        assertThat(TenantContext.call(TENANT, () -> itemRepository.existsById(publicId))).isFalse();
+        assertThat(itemRepository.existsById(tenantId)).isFalse();
+        assertThat(TenantContext.call(TENANT, () -> itemRepository.existsById(tenantId))).isTrue();
+    }
+
+    @Test
+    void tenantHeader() throws Exception {
+        // given
+        Long publicId = memberRepository.save(new Member("isolation-http", 10)).getId();
+        publicMemberIds.add(publicId);
+
+        // 헤더가 없으면 기본 테넌트, 등록된 테넌트는 대소문자 구분 없이 해당 스키마
+        mockMvc.perform(get("/members/batch").param("ids", publicId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/members/batch").param("ids", publicId.toString())
+                        .header(TenantFilter.TENANT_HEADER, "isolation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        // 등록되지 않은 테넌트
+        mockMvc.perform(get("/members/batch").param("ids", publicId.toString())
+                        .header(TenantFilter.TENANT_HEADER, "unknown"))
+                .andExpect(status().isBadRequest());
+    }
+}